@@ -0,0 +1,98 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Заполняет базу пользователями, вещами, бронированиями и комментариями.
+ * Первые {@code owners} пользователей владеют вещами, остальные бронируют.
+ * Данные детерминированы: при одинаковом масштабе прогоны сравнимы.
+ */
+@RequiredArgsConstructor
+public class BenchmarkDataGenerator {
+
+    private static final List<String> NAMES = List.of("Дрель", "Пила", "Отвёртка", "Лестница", "Палатка", "Велосипед");
+    private static final List<String> DESCRIPTIONS = List.of(
+            "Аккумуляторная, с кейсом", "Почти новая", "Для дачи и ремонта", "Складная, лёгкая");
+    private static final BookingStatus[] STATUSES = {
+            BookingStatus.APPROVED, BookingStatus.APPROVED, BookingStatus.WAITING, BookingStatus.REJECTED};
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    public Dataset generate(Scale scale) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < scale.owners() + scale.bookers(); i++) {
+            users.add(User.builder().name("User " + i).email("bench" + i + "@example.com").build());
+        }
+        users = userRepository.saveAll(users);
+        List<User> owners = users.subList(0, scale.owners());
+        List<User> bookers = users.subList(scale.owners(), users.size());
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < scale.owners() * scale.itemsPerOwner(); i++) {
+            items.add(Item.builder()
+                    .name(NAMES.get(i % NAMES.size()) + " " + i)
+                    .description(DESCRIPTIONS.get(random.nextInt(DESCRIPTIONS.size())))
+                    .available(i % 5 != 0)
+                    .owner(owners.get(i / scale.itemsPerOwner()))
+                    .build());
+        }
+        items = itemRepository.saveAll(items);
+
+        // Бронирования вещи идут друг за другом по суткам: примерно треть в будущем,
+        // остальные в прошлом, одно может пересекать текущий момент
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : items) {
+            LocalDateTime start = now.minusDays(scale.bookingsPerItem() * 2L / 3);
+            for (int i = 0; i < scale.bookingsPerItem(); i++) {
+                bookings.add(Booking.builder()
+                        .item(item)
+                        .booker(bookers.get(random.nextInt(bookers.size())))
+                        .start(start.plusDays(i))
+                        .end(start.plusDays(i + 1).minusHours(1))
+                        .status(STATUSES[random.nextInt(STATUSES.length)])
+                        .build());
+            }
+            for (int i = 0; i < scale.commentsPerItem(); i++) {
+                comments.add(Comment.builder()
+                        .text("Комментарий " + i + " к вещи " + item.getName())
+                        .item(item)
+                        .author(bookers.get(random.nextInt(bookers.size())))
+                        .build());
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+
+        return new Dataset(owners.getFirst().getId(), bookers.getFirst().getId(), items.getFirst().getId());
+    }
+
+    public record Scale(int owners, int bookers, int itemsPerOwner, int bookingsPerItem, int commentsPerItem) {
+    }
+
+    /**
+     * Идентификаторы, с которыми вызываются бенчмарки.
+     */
+    public record Dataset(Long ownerId, Long bookerId, Long itemId) {
+    }
+}
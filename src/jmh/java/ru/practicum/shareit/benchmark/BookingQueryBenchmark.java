@@ -0,0 +1,54 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Первая страница бронирований арендатора и владельца для каждого состояния,
+ * полная выгрузка истории и выборка последнего/следующего бронирования вещей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingQueryBenchmark {
+
+    private static final int PAGE = 10;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    public String bookingState;
+
+    @Benchmark
+    public BookingPageDto bookerPage(ShareItState state) {
+        return state.bookingService.getUserBooking(state.dataset.bookerId(), bookingState, 0, PAGE, null);
+    }
+
+    @Benchmark
+    public BookingPageDto ownerPage(ShareItState state) {
+        return state.bookingService.getOwnerBookings(state.dataset.ownerId(), bookingState, 0, PAGE, null);
+    }
+
+    @Benchmark
+    public void ownerStream(ShareItState state, Blackhole blackhole) {
+        state.bookingService.streamOwnerBookings(state.dataset.ownerId(), BookingState.parseState(bookingState),
+                blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Booking> lastAndNextForItems(ShareItState state) {
+        List<Long> itemIds = List.of(state.dataset.itemId(), state.dataset.itemId() + 1, state.dataset.itemId() + 2);
+        return state.bookingRepository.findLastAndNextForItems(itemIds, LocalDateTime.now());
+    }
+}
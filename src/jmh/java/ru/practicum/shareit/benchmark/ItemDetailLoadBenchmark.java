@@ -0,0 +1,89 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Карточка вещи под нагрузкой: 32 потока против пула из 5 соединений, кэш карточек
+ * отключён. Сравнивает последовательные чтения в одной транзакции и параллельные
+ * чтения в виртуальных потоках. Каждый вызов, как запрос в Tomcat, выполняется
+ * в потоке обработки запросов: в режиме виртуальных потоков - в новом виртуальном
+ * потоке, иначе - в пуле из 200 платформенных потоков (server.tomcat.threads.max
+ * по умолчанию). Режим SampleTime даёт p99, Throughput - число операций.
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.include=ItemDetailLoadBenchmark
+ * </pre>
+ */
+@Threads(32)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemDetailLoadBenchmark {
+
+    @Benchmark
+    public ItemResponseDto ownerView(LoadState state) throws Exception {
+        Long itemId = state.randomItemId();
+        return state.handle(() -> state.itemService.getByItemId(itemId, state.dataset.ownerId()));
+    }
+
+    @Benchmark
+    public ItemResponseDto publicView(LoadState state) throws Exception {
+        Long itemId = state.randomItemId();
+        return state.handle(() -> state.itemService.getByItemId(itemId, state.dataset.bookerId()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadState extends ShareItState {
+
+        private static final int PLATFORM_REQUEST_THREADS = 200;
+
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        private ExecutorService requestThreads;
+
+        @Setup(Level.Trial)
+        public void startRequestThreads() {
+            requestThreads = virtualThreads
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(PLATFORM_REQUEST_THREADS);
+        }
+
+        @TearDown(Level.Trial)
+        public void stopRequestThreads() {
+            requestThreads.shutdown();
+        }
+
+        <T> T handle(Callable<T> request) throws Exception {
+            return requestThreads.submit(request).get();
+        }
+
+        @Override
+        protected String[] extraProperties() {
+            return new String[]{
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    "spring.datasource.hikari.maximum-pool-size=5",
+                    "shareit.item.cache.ttl=0s"};
+        }
+
+        // Вещи первого владельца
+        Long randomItemId() {
+            return dataset.itemId() + ThreadLocalRandom.current().nextInt(itemsPerOwner);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ответ GET /items/{id} для популярной вещи из кэша карточек: сериализация DTO
+ * в каждом запросе против готовых байтов JSON (shareit.item.cache.json.enabled).
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.include=ItemJsonBenchmark
+ * </pre>
+ */
+@Threads(8)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ItemJsonBenchmark {
+
+    @Benchmark
+    public byte[] ownerView(JsonState state) {
+        return state.itemService.getJsonByItemId(state.dataset.itemId(), state.dataset.ownerId()).body();
+    }
+
+    @Benchmark
+    public byte[] publicView(JsonState state) {
+        return state.itemService.getJsonByItemId(state.dataset.itemId(), state.dataset.bookerId()).body();
+    }
+
+    @State(Scope.Benchmark)
+    public static class JsonState extends ShareItState {
+
+        @Param({"false", "true"})
+        public boolean cacheJson;
+
+        @Override
+        protected String[] extraProperties() {
+            return new String[]{"shareit.item.cache.json.enabled=" + cacheJson};
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Список вещей владельца, карточка вещи и поиск: через индекс и запросом LIKE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemServiceBenchmark {
+
+    @Param({"дрель", "аккум", "ка"})
+    public String text;
+
+    @Benchmark
+    public List<ItemResponseDto> ownerItems(ShareItState state) {
+        return state.itemService.getAllItemsByOwnerId(state.dataset.ownerId());
+    }
+
+    @Benchmark
+    public ItemResponseDto itemForOwner(ShareItState state) {
+        return state.itemService.getByItemId(state.dataset.itemId(), state.dataset.ownerId());
+    }
+
+    @Benchmark
+    public List<ItemResponseDto> search(ShareItState state) {
+        return state.itemService.search(text, state.dataset.bookerId(), 0, 10);
+    }
+
+    @Benchmark
+    public List<Item> searchJpql(ShareItState state) {
+        return state.itemRepository.search(text);
+    }
+}
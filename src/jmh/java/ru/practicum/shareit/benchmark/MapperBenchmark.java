@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей в DTO без обращения к базе.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private Item item;
+    private Booking booking;
+    private BookingShortDto lastBooking;
+    private BookingShortDto nextBooking;
+    private List<CommentDto> comments;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = User.builder().id(1L).name("Owner").email("owner@example.com").build();
+        User booker = User.builder().id(2L).name("Booker").email("booker@example.com").build();
+        item = Item.builder().id(10L).name("Дрель").description("Аккумуляторная, с кейсом")
+                .available(true).owner(owner).build();
+        booking = Booking.builder().id(100L).item(item).booker(booker)
+                .start(now.minusDays(2)).end(now.minusDays(1)).status(BookingStatus.APPROVED).build();
+        lastBooking = BookingMapper.toBookingShortDto(booking);
+        nextBooking = BookingMapper.toBookingShortDto(Booking.builder().id(101L).item(item).booker(booker)
+                .start(now.plusDays(1)).end(now.plusDays(2)).status(BookingStatus.APPROVED).build());
+        comments = List.of(
+                CommentMapper.toCommentDto(Comment.builder().id(1L).text("Отличная дрель").item(item).author(booker).build()),
+                CommentMapper.toCommentDto(Comment.builder().id(2L).text("Всё работает").item(item).author(booker).build()));
+    }
+
+    @Benchmark
+    public ItemResponseDto itemToResponseDto() {
+        return ItemMapper.toResponseDto(item);
+    }
+
+    @Benchmark
+    public ItemResponseDto itemWithBookingsToResponseDto() {
+        return ItemMapper.toResponseDto(item, lastBooking, nextBooking, comments);
+    }
+
+    @Benchmark
+    public BookingResponseDto bookingToResponseDto() {
+        return BookingMapper.toResponseDto(booking);
+    }
+
+    @Benchmark
+    public BookingShortDto bookingToShortDto() {
+        return BookingMapper.toBookingShortDto(booking);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Контекст приложения на H2 из профиля test, заполненный данными заданного масштаба.
+ * Поднимается один раз на форк; масштаб меняется параметрами JMH, например
+ * {@code -p bookingsPerItem=10,100,1000}.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+
+    @Param("5")
+    public int owners;
+
+    @Param("50")
+    public int bookers;
+
+    @Param("20")
+    public int itemsPerOwner;
+
+    @Param("100")
+    public int bookingsPerItem;
+
+    @Param("5")
+    public int commentsPerItem;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+    BookingService bookingService;
+    ItemRepository itemRepository;
+    BookingRepository bookingRepository;
+    BenchmarkDataGenerator.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(arguments());
+
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+
+        BenchmarkDataGenerator generator = new BenchmarkDataGenerator(
+                context.getBean(UserRepository.class),
+                itemRepository,
+                bookingRepository,
+                context.getBean(CommentRepository.class));
+        BenchmarkDataGenerator.Scale scale = new BenchmarkDataGenerator.Scale(
+                owners, bookers, itemsPerOwner, bookingsPerItem, commentsPerItem);
+        dataset = context.getBean(TransactionTemplate.class).execute(status -> generator.generate(scale));
+
+        // Индекс строится при старте, когда база ещё пуста
+        context.getBean(ItemSearchIndex.class).rebuild();
+    }
+
+    // Аргументами командной строки, а не свойствами по умолчанию: иначе их перекрывает
+    // профиль test и основной конфиг, и замер включает журнал каждой транзакции
+    private String[] arguments() {
+        return Stream.concat(Stream.of(
+                                "spring.jpa.show-sql=false",
+                                "spring.jpa.properties.hibernate.generate_statistics=false",
+                                "logging.level.root=WARN",
+                                "logging.level.org.springframework.transaction.interceptor=WARN",
+                                "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                                "logging.level.ru.practicum.shareit=WARN",
+                                "logging.level.org.springframework.jdbc=WARN",
+                                "logging.level.com.zaxxer.hikari=WARN"),
+                        Arrays.stream(extraProperties()))
+                .map(property -> "--" + property)
+                .toArray(String[]::new);
+    }
+
+    // Дополнительные свойства контекста для наследников
+    protected String[] extraProperties() {
+        return new String[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Ограничение частоты запросов по пользователю и одновременных запросов к API
+ * (shareit.admission.enabled). Фильтр стоит только на путях контроллеров, которые
+ * обращаются к БД; actuator и /error не ограничиваются.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.admission.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+
+    @Bean
+    UserRateLimiter userRateLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        UserRateLimiter limiter = new UserRateLimiter(properties);
+        Gauge.builder("admission.users", limiter, UserRateLimiter::estimatedUsers).register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    ConcurrencyLimiter concurrencyLimiter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(properties.getMaxConcurrent());
+        Gauge.builder("admission.in-flight", limiter, ConcurrencyLimiter::inFlight).register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(UserRateLimiter userRateLimiter,
+                                                                   ConcurrencyLimiter concurrencyLimiter,
+                                                                   AdmissionProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(new AdmissionFilter(
+                userRateLimiter, concurrencyLimiter, properties.getRetryAfter(), meterRegistry));
+        registration.addUrlPatterns("/users/*", "/users", "/items/*", "/items",
+                "/bookings/*", "/bookings", "/requests/*", "/requests");
+        // Раньше остальных фильтров, чтобы отказ стоил как можно меньше
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Допуск запросов к API до контроллеров. Сначала бюджет пользователя из заголовка
+ * X-Sharer-User-Id по группе эндпоинтов: при исчерпании - 429 с Retry-After до
+ * восстановления бюджета. Затем общее ограничение одновременных запросов: сверх него
+ * запрос сразу получает 503 с Retry-After, а не ждёт соединения из пула до таймаута.
+ * Место освобождается по окончании запроса, у асинхронных (выгрузка NDJSON) -
+ * по окончании асинхронной обработки.
+ */
+@Slf4j
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final UserRateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Duration retryAfter;
+    private final MeterRegistry meterRegistry;
+
+    AdmissionFilter(UserRateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter,
+                    Duration retryAfter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.retryAfter = retryAfter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request.getMethod(), request.getRequestURI());
+        Long userId = userId(request);
+        if (userId != null) {
+            long wait = rateLimiter.tryAcquire(userId, group);
+            if (wait > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, Duration.ofNanos(wait), "rate", group);
+                log.debug("Запрос {} {} пользователя {} отклонён: исчерпан бюджет {}",
+                        request.getMethod(), request.getRequestURI(), userId, group);
+                return;
+            }
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, retryAfter, "concurrency", group);
+            log.warn("Запрос {} {} отклонён: одновременно выполняется {} запросов",
+                    request.getMethod(), request.getRequestURI(), concurrencyLimiter.inFlight());
+            return;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(released));
+            } else {
+                release(released);
+            }
+        }
+    }
+
+    private void release(AtomicBoolean released) {
+        if (released.compareAndSet(false, true)) {
+            concurrencyLimiter.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, Duration wait, String reason,
+                        EndpointGroup group) throws IOException {
+        meterRegistry.counter("admission.rejected", "reason", reason, "group", group.name()).increment();
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait.toNanos() + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(status.value(), status == HttpStatus.TOO_MANY_REQUESTS
+                ? "Слишком много запросов, повторите через " + seconds + " с"
+                : "Сервис перегружен, повторите через " + seconds + " с");
+    }
+
+    // Запросы без заголовка или с некорректным id по частоте не ограничиваются
+    private static Long userId(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeadersConstants.USER_ID_HEADER);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class ReleaseListener implements AsyncListener {
+
+        private final AtomicBoolean released;
+
+        ReleaseListener(AtomicBoolean released) {
+            this.released = released;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(released);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
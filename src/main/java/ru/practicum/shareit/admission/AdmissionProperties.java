@@ -0,0 +1,39 @@
+package ru.practicum.shareit.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("shareit.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Бюджеты по группам эндпоинтов; для группы без бюджета ограничения по частоте нет
+    private Map<EndpointGroup, Budget> budgets = new EnumMap<>(EndpointGroup.class);
+
+    // Сколько пользователей держать в памяти; вытесненный пользователь начинает с полным бюджетом
+    private long maxUsers = 100_000;
+
+    // Бюджет простаивающего пользователя к этому времени всё равно полон, запись можно удалить
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // Одновременных запросов к эндпоинтам, работающим с БД; сверх этого - 503
+    private int maxConcurrent = 10;
+
+    // Retry-After для отказов по перегрузке
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    @Data
+    public static class Budget {
+        // Сколько запросов можно сделать подряд
+        private int capacity;
+
+        // Скорость восстановления бюджета, запросов в секунду
+        private double refillPerSecond;
+    }
+}
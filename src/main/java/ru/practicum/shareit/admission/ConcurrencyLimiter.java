@@ -0,0 +1,36 @@
+package ru.practicum.shareit.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничение числа одновременно выполняемых запросов. Не ставит запросы в очередь:
+ * если мест нет, tryAcquire сразу возвращает false.
+ */
+class ConcurrencyLimiter {
+
+    private final int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    ConcurrencyLimiter(int limit) {
+        this.limit = limit;
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+}
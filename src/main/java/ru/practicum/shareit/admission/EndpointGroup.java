@@ -0,0 +1,19 @@
+package ru.practicum.shareit.admission;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Группы эндпоинтов со своими бюджетами запросов: поиск и запись дороже чтения.
+ */
+public enum EndpointGroup {
+    READ,
+    WRITE,
+    SEARCH;
+
+    static EndpointGroup of(String method, String path) {
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return WRITE;
+        }
+        return path.endsWith("/search") ? SEARCH : READ;
+    }
+}
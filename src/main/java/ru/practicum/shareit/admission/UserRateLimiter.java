@@ -0,0 +1,86 @@
+package ru.practicum.shareit.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket на пользователя и группу эндпоинтов в форме GCRA: вместо числа
+ * токенов и времени пополнения хранится одно число - теоретическое время прихода
+ * следующего запроса (TAT). Запрос проходит, если TAT не убежал вперёд больше чем
+ * на capacity интервалов; тогда TAT сдвигается на один интервал CAS-ом, без блокировок.
+ * Состояние пользователя - один AtomicLongArray на все группы. Записи лежат в кэше
+ * Caffeine с ограничением по числу пользователей и сроком простоя: потерянная запись
+ * лишь возвращает пользователю полный бюджет.
+ */
+class UserRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long[] intervals = new long[EndpointGroup.values().length];
+    private final long[] bursts = new long[EndpointGroup.values().length];
+    private final Cache<Long, AtomicLongArray> users;
+    private final LongSupplier clock;
+
+    UserRateLimiter(AdmissionProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    UserRateLimiter(AdmissionProperties properties, LongSupplier clock) {
+        for (Map.Entry<EndpointGroup, AdmissionProperties.Budget> entry : properties.getBudgets().entrySet()) {
+            AdmissionProperties.Budget budget = entry.getValue();
+            if (budget.getCapacity() < 1 || budget.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("Некорректный бюджет группы " + entry.getKey() + ": " + budget);
+            }
+            int group = entry.getKey().ordinal();
+            intervals[group] = Math.max(1, (long) (NANOS_PER_SECOND / budget.getRefillPerSecond()));
+            bursts[group] = intervals[group] * budget.getCapacity();
+        }
+        this.users = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        this.clock = clock;
+    }
+
+    /**
+     * Занимает один запрос из бюджета. 0 - запрос разрешён, иначе через сколько
+     * наносекунд бюджет позволит следующий запрос.
+     */
+    long tryAcquire(Long userId, EndpointGroup group) {
+        int index = group.ordinal();
+        long interval = intervals[index];
+        if (interval == 0) {
+            return 0;
+        }
+        AtomicLongArray arrivals = users.get(userId, id -> newArrivals());
+        long now = clock.getAsLong();
+        while (true) {
+            long arrival = arrivals.get(index);
+            long next = Math.max(arrival, now) + interval;
+            long wait = next - now - bursts[index];
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivals.compareAndSet(index, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long estimatedUsers() {
+        return users.estimatedSize();
+    }
+
+    private static AtomicLongArray newArrivals() {
+        AtomicLongArray arrivals = new AtomicLongArray(EndpointGroup.values().length);
+        for (int i = 0; i < arrivals.length(); i++) {
+            // Раньше любого показания nanoTime: бюджет нового пользователя полон
+            arrivals.set(i, Long.MIN_VALUE);
+        }
+        return arrivals;
+    }
+}
@@ -1,6 +1,6 @@
 package ru.practicum.shareit.booking;
 
-import jakarta.validation.ValidationException;
+import ru.practicum.shareit.exception.BadRequestException;
 
 public enum BookingState {
     ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED;
@@ -9,7 +9,12 @@ public enum BookingState {
         try {
             return BookingState.valueOf(state.toUpperCase());
         } catch (IllegalArgumentException e) {
-            throw new ValidationException("Неизвестный статус: " + state);
+            throw new BadRequestException("Неизвестный статус: " + state);
         }
     }
+
+    // Состояния, в которые попадают бронирования из архива завершённых
+    public boolean includesArchive() {
+        return this == ALL || this == PAST || this == REJECTED;
+    }
 }
\ No newline at end of file
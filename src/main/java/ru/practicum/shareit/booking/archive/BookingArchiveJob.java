@@ -0,0 +1,103 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.JobLockRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Переносит бронирования, завершённые больше after-days дней назад, из bookings
+ * в bookings_archive. Каждая порция из chunk-size строк копируется и удаляется
+ * в своей транзакции, так что блокировки короткие, а прерванный перенос
+ * продолжится со следующего запуска.
+ * <p>
+ * Плановый запуск сначала берёт аренду строки booking-archive в job_locks на
+ * lock-at-most-for: при нескольких экземплярах переносит только один, остальные
+ * пропускают запуск. По завершении аренда снимается; если экземпляр упал,
+ * она истечёт сама. lock-at-most-for должен быть больше самого долгого переноса.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiveJob {
+
+    static final String LOCK = "booking-archive";
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterDays;
+    private final int chunkSize;
+    private final Duration lockAtMostFor;
+    // Владелец аренды: свой у каждого экземпляра приложения
+    private final String instance = UUID.randomUUID().toString();
+
+    public BookingArchiveJob(BookingRepository bookingRepository,
+                             BookingArchiveRepository bookingArchiveRepository,
+                             JobLockRepository jobLockRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${shareit.booking.archive.after-days:90}") int afterDays,
+                             @Value("${shareit.booking.archive.chunk-size:1000}") int chunkSize,
+                             @Value("${shareit.booking.archive.lock-at-most-for:PT1H}") Duration lockAtMostFor) {
+        this.bookingRepository = bookingRepository;
+        this.bookingArchiveRepository = bookingArchiveRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.afterDays = afterDays;
+        this.chunkSize = chunkSize;
+        this.lockAtMostFor = lockAtMostFor;
+    }
+
+    /**
+     * Плановый перенос. Возвращает false, если аренду держит другой экземпляр
+     * и перенос пропущен.
+     */
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public boolean run() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(status ->
+                jobLockRepository.acquire(LOCK, instance, now, now.plus(lockAtMostFor)));
+        if (acquired == null || acquired == 0) {
+            log.info("Перенос бронирований в архив пропущен: его выполняет другой экземпляр");
+            return false;
+        }
+        try {
+            archive(now.minusDays(afterDays));
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    jobLockRepository.release(LOCK, instance, LocalDateTime.now()));
+        }
+        return true;
+    }
+
+    public long archive(LocalDateTime threshold) {
+        long moved = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = bookingRepository.findArchivableIds(threshold, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                bookingArchiveRepository.copyFromBookings(ids);
+                return bookingRepository.deleteAllByIdIn(ids);
+            });
+            moved += chunk;
+        } while (chunk == chunkSize);
+        log.info("В архив перенесено {} бронирований, завершённых до {}", moved, threshold);
+        return moved;
+    }
+}
@@ -1,16 +1,43 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.bulkhead.BulkheadGroup;
+import ru.practicum.shareit.bulkhead.Bulkheads;
 import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.util.ConditionalGet;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * TODO Sprint add-bookings.
@@ -22,7 +49,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String EXPORT_PERMIT = BookingController.class.getName() + ".EXPORT_PERMIT";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<Bulkheads> bulkheads;
 
     @PostMapping
     public BookingResponseDto createBooking(
@@ -32,6 +64,15 @@ public class BookingController {
         return bookingService.createBooking(userId, bookingCreateDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBookings(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<BookingCreateDto> bookingCreateDtos) {
+        log.info("POST /bookings/batch - создание {} бронирований пользователем ID={}",
+                bookingCreateDtos.size(), userId);
+        return bookingService.createBookings(userId, bookingCreateDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingResponseDto updateStatusBooking(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
@@ -41,33 +82,129 @@ public class BookingController {
         return bookingService.updateBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public BookingStatusBatchDto updateStatusBookings(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @RequestParam Boolean approved,
+            @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@NotNull Long> bookingIds) {
+        log.info("PATCH /bookings/batch - обновление статуса {} бронирований владельцем ID={}",
+                bookingIds.size(), userId);
+        return bookingService.updateBookingStatuses(userId, bookingIds, approved);
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getUserSummary(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/summary - сводка бронирований пользователя {}", userId);
+        return bookingService.getUserSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId) {
+        log.info("GET /bookings/owner/summary - сводка бронирований владельца {}", userId);
+        return bookingService.getOwnerSummary(userId);
+    }
+
     @GetMapping("/{bookingId}")
-    public BookingResponseDto getBookingById(
+    public ResponseEntity<BookingResponseDto> getBookingById(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
-            @PathVariable Long bookingId) {
+            @PathVariable Long bookingId,
+            WebRequest request) {
         log.info("GET /bookings - Получение бронирования по Id = {}", bookingId);
-        return bookingService.getBookingById(userId, bookingId);
+        return ConditionalGet.respond(request,
+                () -> bookingService.getBookingETag(userId, bookingId),
+                () -> bookingService.getVersionedBookingById(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingResponseDto> getUserBookings(
+    public ResponseEntity<List<BookingResponseDto>> getUserBookings(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
-            @RequestParam(defaultValue = "ALL") String state) {
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
 
-        log.info("GET /bookings?state={} для пользователя {}",
-                state, userId);
+        log.info("GET /bookings?state={}&from={}&size={} для пользователя {}",
+                state, from, size, userId);
 
-        return bookingService.getUserBooking(userId, state);
+        return toResponse(bookingService.getUserBooking(userId, state, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingResponseDto> getOwnerBookings(
+    public ResponseEntity<List<BookingResponseDto>> getOwnerBookings(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+
+        log.info("GET /bookings/owner?state={}&from={}&size={} для владельца {}",
+                state, from, size, userId);
+
+        return toResponse(bookingService.getOwnerBookings(userId, state, from, size, cursor));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamUserBookings(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            WebRequest request) {
+
+        log.info("GET /bookings?state={} (ndjson) для пользователя {}", state, userId);
+
+        BookingState bookingState = bookingService.checkUserExport(userId, state);
+        return export(request,
+                out -> bookingService.streamUserBookings(userId, bookingState, booking -> writeLine(out, booking)));
+    }
+
+    @GetMapping(path = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamOwnerBookings(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
-            @RequestParam(defaultValue = "ALL") String state) {
+            @RequestParam(defaultValue = "ALL") String state,
+            WebRequest request) {
+
+        log.info("GET /bookings/owner?state={} (ndjson) для владельца {}", state, userId);
+
+        BookingState bookingState = bookingService.checkOwnerExport(userId, state);
+        return export(request,
+                out -> bookingService.streamOwnerBookings(userId, bookingState, booking -> writeLine(out, booking)));
+    }
 
-        log.info("GET /bookings/owner?state={} для владельца {}",
-                state, userId);
+    // Место в группе EXPORT занимается до ответа: при занятой квоте клиент получает 503,
+    // а не начатый и оборванный поток 200. Освобождается, когда выгрузка закончилась,
+    // или по завершении асинхронной обработки, если тело так и не запустилось
+    private StreamingResponseBody export(WebRequest request, Consumer<OutputStream> stream) {
+        Bulkheads available = bulkheads.getIfAvailable();
+        Bulkheads.Permit permit = available == null ? Bulkheads.Permit.NONE : available.enter(BulkheadGroup.EXPORT);
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_PERMIT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        permit.close();
+                    }
+                });
+        return out -> {
+            try (permit) {
+                stream.accept(out);
+            }
+        };
+    }
+
+    private void writeLine(OutputStream out, BookingResponseDto booking) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(booking));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        return bookingService.getOwnerBookings(userId, state);
+    private ResponseEntity<List<BookingResponseDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(HttpHeadersConstants.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
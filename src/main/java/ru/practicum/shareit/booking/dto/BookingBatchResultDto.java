@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат одного бронирования из пакета: созданное бронирование
+ * либо HTTP-код и текст ошибки.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+
+    // Позиция бронирования в запросе
+    private int index;
+
+    private int status;
+
+    private BookingResponseDto booking;
+
+    private String error;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusBatchDto {
+    private BookingStatus status;
+
+    // Бронирования, статус которых изменён
+    private List<Long> updated;
+
+    // Не найденные, чужие или уже не ожидающие подтверждения
+    private List<Long> skipped;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие бронирования в том виде, в каком его получают подписчики.
+ * id - идентификатор строки outbox: при повторной доставке он тот же,
+ * по нему подписчик может отбросить дубль.
+ */
+public record BookingEvent(Long id, BookingEventType type, Long bookingId, Long itemId,
+                           Long bookerId, Long ownerId, LocalDateTime created) {
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Счётчики доставленных событий бронирований по типу: booking.events.delivered{type}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEventCounter implements BookingEventListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onEvents(List<BookingEvent> events) {
+        for (BookingEvent event : events) {
+            meterRegistry.counter("booking.events.delivered", "type", event.type().name()).increment();
+        }
+    }
+}
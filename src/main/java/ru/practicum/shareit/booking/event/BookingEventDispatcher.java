@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.storage.BookingEventRepository;
+import ru.practicum.shareit.util.RingBuffer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Доставляет события бронирований подписчикам BookingEventListener. События после
+ * коммита кладутся в кольцевой буфер без блокировок, несколько потоков-потребителей
+ * забирают их пачками до batch-size, отдают пачку всем подписчикам и одним UPDATE
+ * отмечают строки outbox доставленными.
+ * Буфер ограничен: если он полон, событие не ждёт места, а остаётся в outbox
+ * недоставленным и будет доставлено повторной отправкой. Она по расписанию
+ * перечитывает из outbox события старше redelivery-delay без отметки о доставке,
+ * а при старте - все такие события: их не успели доставить до остановки или падения.
+ * Метрики: booking.events.buffer.size, booking.events.published, booking.events.rejected
+ * (буфер полон), booking.events.redelivered, booking.events.failed, booking.events.batch.
+ */
+@Slf4j
+@Component
+public class BookingEventDispatcher {
+
+    private static final long MIN_IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RingBuffer<BookingEvent> buffer;
+    private final List<BookingEventListener> listeners;
+    private final BookingEventRepository bookingEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int consumers;
+    private final int batchSize;
+    private final Duration redeliveryDelay;
+    private final Duration retention;
+
+    private final Counter published;
+    private final Counter rejected;
+    private final Counter redelivered;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+    private final Timer batchTimer;
+
+    private volatile Thread[] threads = new Thread[0];
+    private volatile boolean running;
+
+    public BookingEventDispatcher(List<BookingEventListener> listeners,
+                                  BookingEventRepository bookingEventRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${shareit.booking.events.delivery.enabled:true}") boolean enabled,
+                                  @Value("${shareit.booking.events.buffer-size:1024}") int bufferSize,
+                                  @Value("${shareit.booking.events.consumers:2}") int consumers,
+                                  @Value("${shareit.booking.events.batch-size:100}") int batchSize,
+                                  @Value("${shareit.booking.events.redelivery-delay:1m}") Duration redeliveryDelay,
+                                  @Value("${shareit.booking.events.retention:7d}") Duration retention) {
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.listeners = listeners;
+        this.bookingEventRepository = bookingEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.redeliveryDelay = redeliveryDelay;
+        this.retention = retention;
+
+        Gauge.builder("booking.events.buffer.size", buffer, RingBuffer::size)
+                .description("События в буфере доставки")
+                .register(meterRegistry);
+        Gauge.builder("booking.events.buffer.capacity", buffer, RingBuffer::capacity)
+                .register(meterRegistry);
+        this.published = meterRegistry.counter("booking.events.published");
+        this.rejected = meterRegistry.counter("booking.events.rejected");
+        this.redelivered = meterRegistry.counter("booking.events.redelivered");
+        this.failed = meterRegistry.counter("booking.events.failed");
+        this.batchSizes = DistributionSummary.builder("booking.events.batch.size").register(meterRegistry);
+        this.batchTimer = Timer.builder("booking.events.batch").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Доставка событий бронирований отключена, события копятся в outbox");
+            return;
+        }
+        running = true;
+        Thread[] started = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            started[i] = Thread.ofPlatform()
+                    .name("booking-events-" + i)
+                    .daemon()
+                    .start(this::consume);
+        }
+        threads = started;
+        int pending = redeliver(LocalDateTime.now());
+        log.info("Доставка событий бронирований запущена: {} потоков, буфер {}, из outbox повторно отправлено {}",
+                consumers, buffer.capacity(), pending);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * Кладёт событие в буфер, не дожидаясь места. false - буфер полон или доставка
+     * отключена; событие останется в outbox до повторной отправки.
+     */
+    public boolean offer(BookingEvent event) {
+        if (!running) {
+            return false;
+        }
+        if (!buffer.offer(event)) {
+            rejected.increment();
+            log.warn("Буфер событий бронирований полон, событие {} будет доставлено повторно", event.id());
+            return false;
+        }
+        published.increment();
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.events.redelivery-interval:PT30S}")
+    public void redeliverStale() {
+        if (!running) {
+            return;
+        }
+        redeliver(LocalDateTime.now().minus(redeliveryDelay));
+        Integer purged = transactionTemplate.execute(status ->
+                bookingEventRepository.deleteDeliveredBefore(LocalDateTime.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Из outbox удалено {} доставленных событий бронирований", purged);
+        }
+    }
+
+    /**
+     * Отправляет в буфер недоставленные события, созданные до createdBefore,
+     * пока в буфере есть место. Возвращает число отправленных.
+     */
+    public int redeliver(LocalDateTime createdBefore) {
+        int offered = 0;
+        long afterId = 0;
+        while (running) {
+            List<BookingEventEntry> page = bookingEventRepository.findUndelivered(afterId, createdBefore,
+                    PageRequest.of(0, batchSize));
+            for (BookingEventEntry entry : page) {
+                if (!buffer.offer(entry.toEvent())) {
+                    rejected.increment();
+                    log.warn("Буфер событий бронирований полон, повторная отправка продолжится позже");
+                    return offered;
+                }
+                redelivered.increment();
+                offered++;
+                afterId = entry.getId();
+            }
+            for (Thread thread : threads) {
+                LockSupport.unpark(thread);
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        return offered;
+    }
+
+    private void consume() {
+        List<BookingEvent> batch = new ArrayList<>(batchSize);
+        long idle = MIN_IDLE_NANOS;
+        while (running) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(this, idle);
+                idle = Math.min(idle * 2, MAX_IDLE_NANOS);
+                continue;
+            }
+            idle = MIN_IDLE_NANOS;
+            deliver(List.copyOf(batch));
+            batch.clear();
+        }
+    }
+
+    // Пачка отмечается доставленной, только если её приняли все подписчики
+    private void deliver(List<BookingEvent> batch) {
+        Timer.Sample sample = Timer.start();
+        batchSizes.record(batch.size());
+        boolean delivered = true;
+        for (BookingEventListener listener : listeners) {
+            try {
+                listener.onEvents(batch);
+            } catch (RuntimeException e) {
+                delivered = false;
+                log.warn("Подписчик {} не обработал {} событий бронирований, они будут доставлены повторно",
+                        listener.getClass().getSimpleName(), batch.size(), e);
+            }
+        }
+        if (delivered) {
+            List<Long> ids = batch.stream()
+                    .map(BookingEvent::id)
+                    .toList();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        bookingEventRepository.markDelivered(ids, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                delivered = false;
+                log.warn("Не удалось отметить доставку {} событий бронирований", ids.size(), e);
+            }
+        }
+        if (!delivered) {
+            failed.increment(batch.size());
+        }
+        sample.stop(batchTimer);
+    }
+}
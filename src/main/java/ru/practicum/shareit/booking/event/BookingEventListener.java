@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.event;
+
+import java.util.List;
+
+/**
+ * Подписчик на события бронирований. Вызывается из потоков BookingEventDispatcher
+ * пачками, вне транзакции запроса. Доставка не реже одного раза: если подписчик
+ * бросил исключение или приложение упало до отметки о доставке, та же пачка
+ * придёт снова, поэтому обработка должна быть идемпотентной.
+ */
+public interface BookingEventListener {
+
+    void onEvents(List<BookingEvent> events);
+}
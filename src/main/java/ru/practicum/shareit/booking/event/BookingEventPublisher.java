@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingEventRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Публикует события бронирований через outbox. Строка события пишется в текущей
+ * транзакции вместе с изменением бронирования, в буфер доставки событие попадает
+ * только после коммита. Откат транзакции отменяет и событие.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEventPublisher {
+
+    private final BookingEventRepository bookingEventRepository;
+    private final BookingEventDispatcher bookingEventDispatcher;
+
+    public void publish(BookingEventType type, Booking booking, Long ownerId) {
+        BookingEventEntry entry = bookingEventRepository.save(BookingEventEntry.builder()
+                .type(type)
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .bookerId(booking.getBooker().getId())
+                .ownerId(ownerId)
+                .created(LocalDateTime.now())
+                .build());
+        BookingEvent event = entry.toEvent();
+        AfterCommit.run(() -> bookingEventDispatcher.offer(event));
+    }
+}
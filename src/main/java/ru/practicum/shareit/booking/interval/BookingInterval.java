@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking.interval;
+
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Интервал [start, end) бронирования вещи. Время усекается до микросекунд, с которыми
+ * бронирование сохраняется в БД, поэтому интервал сохранённого бронирования равен
+ * интервалу, прочитанному из БД.
+ */
+public record BookingInterval(Long id, LocalDateTime start, LocalDateTime end) {
+
+    public BookingInterval {
+        start = start.truncatedTo(ChronoUnit.MICROS);
+        end = end.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public static final Comparator<BookingInterval> BY_START = Comparator
+            .comparing(BookingInterval::start)
+            .thenComparing(BookingInterval::id);
+
+    public static BookingInterval of(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd());
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+}
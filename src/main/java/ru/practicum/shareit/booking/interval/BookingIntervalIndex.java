@@ -0,0 +1,348 @@
+package ru.practicum.shareit.booking.interval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Актуальные (WAITING и APPROVED, ещё не закончившиеся) бронирования каждой вещи,
+ * упорядоченные по началу. Расписание вещи загружается из БД при первом обращении.
+ * Индекс не допускает пересечений, поэтому конфликт с новым интервалом может быть
+ * только у ближайшего слева соседа - проверка занимает O(log n). Строки, записанные
+ * до появления проверки, могут пересекаться; такое расписание проверяется перебором,
+ * пока пересекающиеся бронирования не закончатся или не будут освобождены.
+ * Доступ к расписанию защищён одной из STRIPES блокировок, выбранной по id вещи,
+ * так что бронирования разных вещей почти никогда не конкурируют.
+ * Закончившиеся интервалы отбрасываются при каждом обращении к расписанию, а расписания
+ * вещей, к которым давно не обращались, вытесняются (max-items, ttl) и при следующем
+ * обращении перечитываются из БД. Интервалы ещё не закоммиченных бронирований в БД
+ * не видны, поэтому до конца транзакции они хранятся отдельно и добавляются
+ * к перечитанному расписанию. Пакет бронирований загружает расписания всех своих вещей
+ * заранее одним запросом (preload).
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private static final int STRIPES = 64;
+
+    private final BookingRepository bookingRepository;
+
+    private final Cache<Long, Timeline> timelines;
+    // Интервалы, занятые в незавершённых транзакциях
+    private final Map<Long, Set<BookingInterval>> uncommitted = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks = createLocks();
+    // Счётчик изменений расписаний по блокировкам: расписание, прочитанное без блокировки,
+    // кладётся в индекс, только если за время чтения вещи этой блокировки не менялись
+    private final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking.intervals.max-items:10000}") long maxItems,
+                                @Value("${shareit.booking.intervals.ttl:1h}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.timelines = Caffeine.newBuilder()
+                .maximumSize(maxItems)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, timelines, "bookingIntervals");
+    }
+
+    /**
+     * Занимает интервал сохранённого бронирования. При пересечении с другим
+     * активным бронированием вещи бросает ConflictException. Если текущая
+     * транзакция будет откачена, интервал освобождается.
+     */
+    public void reserve(Long itemId, BookingInterval interval) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            Timeline timeline = timeline(itemId);
+            // Только что загруженное расписание уже содержит это бронирование
+            timeline.remove(interval);
+
+            BookingInterval conflict = timeline.conflict(interval);
+            if (conflict != null) {
+                throw new ConflictException("Вещь с Id " + itemId + " уже забронирована с "
+                        + conflict.start() + " по " + conflict.end());
+            }
+            timeline.add(interval);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                uncommitted.computeIfAbsent(itemId, id -> new TreeSet<>(BookingInterval.BY_START)).add(interval);
+            }
+        } finally {
+            lock.unlock();
+        }
+        completeWithTransaction(itemId, interval);
+    }
+
+    /**
+     * Загружает одним запросом расписания вещей, которых нет в индексе. Запрос идёт
+     * без блокировок; если за это время расписание вещи менялось или уже загружено,
+     * оно будет прочитано обычным образом при первом обращении.
+     */
+    public void preload(Collection<Long> itemIds) {
+        List<Long> missing = itemIds.stream()
+                .filter(itemId -> timelines.getIfPresent(itemId) == null)
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        missing.forEach(itemId -> versions.put(itemId, changes.get(stripe(itemId))));
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, List<BookingInterval>> loaded = new HashMap<>();
+        bookingRepository.findActiveIntervalsForItems(missing, ACTIVE_STATUSES, now).forEach(row ->
+                loaded.computeIfAbsent(row.itemId(), id -> new ArrayList<>()).add(row.interval()));
+
+        for (Long itemId : missing) {
+            ReentrantLock lock = lockFor(itemId);
+            lock.lock();
+            try {
+                if (timelines.getIfPresent(itemId) == null && changes.get(stripe(itemId)) == versions.get(itemId)) {
+                    timelines.put(itemId, timelineOf(itemId, loaded.getOrDefault(itemId, List.of())));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.debug("Загружены расписания {} вещей одним запросом", missing.size());
+    }
+
+    /**
+     * Освобождает интервал бронирования после коммита текущей транзакции.
+     */
+    public void release(Long itemId, BookingInterval interval) {
+        AfterCommit.run(() -> remove(itemId, interval));
+    }
+
+    /**
+     * Свободные окна вещи внутри [from, to): промежутки между активными бронированиями.
+     * Смежные бронирования окна между собой не дают. Закончившиеся интервалы в индексе
+     * не хранятся, поэтому окна считаются не раньше текущего момента.
+     */
+    public List<FreeInterval> freeIntervals(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<FreeInterval> free = new ArrayList<>();
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            Timeline timeline = timeline(itemId);
+            // Начавшееся до from бронирование может закрывать начало окна
+            LocalDateTime cursor = timeline.busyUntil(from);
+            for (BookingInterval interval : timeline.startingFrom(from)) {
+                if (!interval.start().isBefore(to)) {
+                    break;
+                }
+                if (interval.start().isAfter(cursor)) {
+                    free.add(new FreeInterval(cursor, interval.start()));
+                }
+                if (interval.end().isAfter(cursor)) {
+                    cursor = interval.end();
+                }
+            }
+            if (cursor.isBefore(to)) {
+                free.add(new FreeInterval(cursor, to));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return free;
+    }
+
+    private void remove(Long itemId, BookingInterval interval) {
+        ReentrantLock lock = lockFor(itemId);
+        lock.lock();
+        try {
+            Timeline timeline = timelines.getIfPresent(itemId);
+            if (timeline != null) {
+                timeline.remove(interval);
+            }
+            changes.incrementAndGet(stripe(itemId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывается под блокировкой вещи
+    private Timeline timeline(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        Timeline timeline = timelines.getIfPresent(itemId);
+        if (timeline == null) {
+            timeline = load(itemId, now);
+            timelines.put(itemId, timeline);
+        }
+        timeline.removeEndedBy(now);
+        return timeline;
+    }
+
+    private Timeline load(Long itemId, LocalDateTime now) {
+        Timeline timeline = timelineOf(itemId, bookingRepository.findActiveIntervals(itemId, ACTIVE_STATUSES, now));
+        log.debug("Загружено расписание вещи с Id = {}: {} бронирований", itemId, timeline.intervals.size());
+        return timeline;
+    }
+
+    // Вызывается под блокировкой вещи
+    private Timeline timelineOf(Long itemId, Collection<BookingInterval> committed) {
+        Timeline timeline = new Timeline();
+        timeline.intervals.addAll(committed);
+        timeline.intervals.addAll(uncommitted.getOrDefault(itemId, Set.of()));
+        timeline.overlapping = Timeline.hasOverlaps(timeline.intervals);
+        if (timeline.overlapping) {
+            log.warn("Расписание вещи с Id = {} содержит пересекающиеся бронирования", itemId);
+        }
+        return timeline;
+    }
+
+    // После коммита интервал виден в БД, после отката освобождается
+    private void completeWithTransaction(Long itemId, BookingInterval interval) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ReentrantLock lock = lockFor(itemId);
+                lock.lock();
+                try {
+                    uncommitted.computeIfPresent(itemId, (id, intervals) -> {
+                        intervals.remove(interval);
+                        return intervals.isEmpty() ? null : intervals;
+                    });
+                    changes.incrementAndGet(stripe(itemId));
+                } finally {
+                    lock.unlock();
+                }
+                if (status != STATUS_COMMITTED) {
+                    remove(itemId, interval);
+                }
+            }
+        });
+    }
+
+    private ReentrantLock lockFor(Long itemId) {
+        return locks[stripe(itemId)];
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), STRIPES);
+    }
+
+    private static ReentrantLock[] createLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Расписание вещи. Пока в нём нет пересечений, интервалы упорядочены и по началу,
+     * и по концу, и все проверки опираются на ближайших соседей. Если загруженные
+     * из БД бронирования пересекаются (overlapping), конфликт, занятость начала окна
+     * и закончившиеся интервалы ищутся перебором.
+     */
+    private static final class Timeline {
+
+        private final NavigableSet<BookingInterval> intervals = new TreeSet<>(BookingInterval.BY_START);
+        private boolean overlapping;
+
+        BookingInterval conflict(BookingInterval interval) {
+            BookingInterval probe = new BookingInterval(Long.MIN_VALUE, interval.end(), interval.end());
+            if (!overlapping) {
+                BookingInterval previous = intervals.lower(probe);
+                return previous != null && previous.overlaps(interval.start(), interval.end()) ? previous : null;
+            }
+            for (BookingInterval other : intervals.headSet(probe, false)) {
+                if (other.overlaps(interval.start(), interval.end())) {
+                    return other;
+                }
+            }
+            return null;
+        }
+
+        // Конец занятости, начавшейся до from, или from, если вещь в этот момент свободна
+        LocalDateTime busyUntil(LocalDateTime from) {
+            BookingInterval probe = new BookingInterval(Long.MIN_VALUE, from, from);
+            if (!overlapping) {
+                BookingInterval previous = intervals.lower(probe);
+                return previous != null && previous.end().isAfter(from) ? previous.end() : from;
+            }
+            LocalDateTime until = from;
+            for (BookingInterval interval : intervals.headSet(probe, false)) {
+                if (interval.end().isAfter(until)) {
+                    until = interval.end();
+                }
+            }
+            return until;
+        }
+
+        Iterable<BookingInterval> startingFrom(LocalDateTime from) {
+            return intervals.tailSet(new BookingInterval(Long.MIN_VALUE, from, from), true);
+        }
+
+        void add(BookingInterval interval) {
+            intervals.add(interval);
+        }
+
+        void remove(BookingInterval interval) {
+            if (intervals.remove(interval) && overlapping) {
+                overlapping = hasOverlaps(intervals);
+            }
+        }
+
+        void removeEndedBy(LocalDateTime now) {
+            if (!overlapping) {
+                // Закончившиеся лежат в начале
+                while (!intervals.isEmpty() && !intervals.first().end().isAfter(now)) {
+                    intervals.pollFirst();
+                }
+                return;
+            }
+            if (intervals.removeIf(interval -> !interval.end().isAfter(now))) {
+                overlapping = hasOverlaps(intervals);
+            }
+        }
+
+        static boolean hasOverlaps(NavigableSet<BookingInterval> intervals) {
+            LocalDateTime busyUntil = null;
+            for (BookingInterval interval : intervals) {
+                if (busyUntil != null && interval.start().isBefore(busyUntil)) {
+                    return true;
+                }
+                if (busyUntil == null || interval.end().isAfter(busyUntil)) {
+                    busyUntil = interval.end();
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал [start, end), в котором вещь не занята ни одним активным бронированием.
+ */
+public record FreeInterval(LocalDateTime start, LocalDateTime end) {
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.interval;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал бронирования вместе с id вещи: строка запроса расписаний сразу нескольких вещей.
+ */
+public record ItemBookingInterval(Long itemId, BookingInterval interval) {
+
+    public ItemBookingInterval(Long itemId, Long id, LocalDateTime start, LocalDateTime end) {
+        this(itemId, new BookingInterval(id, start, end));
+    }
+}
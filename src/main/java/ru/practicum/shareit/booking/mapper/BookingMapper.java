@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -28,4 +29,18 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .build();
     }
-}
\ No newline at end of file
+
+    // Отсоединённая копия: изменения в ней не попадают ни в bookings, ни в архив
+    public static Booking toBooking(ArchivedBooking archived) {
+        return Booking.builder()
+                .id(archived.getId())
+                .start(archived.getStart())
+                .end(archived.getEnd())
+                .item(archived.getItem())
+                .booker(archived.getBooker())
+                .status(archived.getStatus())
+                .created(archived.getCreated())
+                .version(archived.getVersion())
+                .build();
+    }
+}
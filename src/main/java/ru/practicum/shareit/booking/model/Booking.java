@@ -16,8 +16,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "bookings")
 public class Booking {
+    // Идентификаторы берутся из последовательности блоками по 50 (pooled-оптимизатор):
+    // с IDENTITY Hibernate не может объединять вставки в JDBC-батчи
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -41,4 +44,8 @@ public class Booking {
     @Column(name = "created", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime created = LocalDateTime.now();
+
+    // Смена статуса идёт запросом UPDATE, который увеличивает версию сам
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Конец последнего завершённого и начало ближайшего будущего подтверждённых
+ * бронирований вещи. От них зависят lastBooking и nextBooking в карточке владельца,
+ * которые меняются и без записи в БД, с ходом времени.
+ */
+public record BookingBounds(Long itemId, LocalDateTime lastEnd, LocalDateTime nextStart) {
+
+    // Для архива: будущих бронирований в нём нет
+    public BookingBounds(Long itemId, LocalDateTime lastEnd) {
+        this(itemId, lastEnd, null);
+    }
+}
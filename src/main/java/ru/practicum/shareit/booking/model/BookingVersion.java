@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Версии бронирования и вошедших в его ответ вещи и арендатора, а также участники
+ * бронирования для проверки доступа до сборки ответа.
+ */
+public record BookingVersion(Long id, Long bookerId, Long ownerId,
+                             Long version, Long itemVersion, Long bookerVersion) {
+}
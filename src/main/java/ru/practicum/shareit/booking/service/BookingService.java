@@ -1,21 +1,48 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.util.Versioned;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface BookingService {
     BookingResponseDto createBooking(Long userId, BookingCreateDto bookingCreateDto);
 
+    List<BookingBatchResultDto> createBookings(Long userId, List<BookingCreateDto> bookingCreateDtos);
+
     BookingResponseDto updateBookingStatus(Long userId, Long bookingId, Boolean approved);
 
+    BookingStatusBatchDto updateBookingStatuses(Long userId, List<Long> bookingIds, Boolean approved);
+
     BookingResponseDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingResponseDto> getUserBooking(Long userId, String state);
+    Versioned<BookingResponseDto> getVersionedBookingById(Long userId, Long bookingId);
+
+    String getBookingETag(Long userId, Long bookingId);
+
+    BookingPageDto getUserBooking(Long userId, String state, Integer from, Integer size, String cursor);
+
+    BookingPageDto getOwnerBookings(Long userId, String state, Integer from, Integer size, String cursor);
+
+    BookingSummaryDto getUserSummary(Long userId);
+
+    BookingSummaryDto getOwnerSummary(Long userId);
+
+    BookingState checkUserExport(Long userId, String state);
+
+    BookingState checkOwnerExport(Long userId, String state);
+
+    void streamUserBookings(Long userId, BookingState state, Consumer<BookingResponseDto> consumer);
 
-    List<BookingResponseDto> getOwnerBookings(Long userId, String state);
+    void streamOwnerBookings(Long userId, BookingState state, Consumer<BookingResponseDto> consumer);
 
 }
 
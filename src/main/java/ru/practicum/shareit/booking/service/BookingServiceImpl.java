@@ -1,26 +1,60 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.event.BookingEventPublisher;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.storage.BookingHistory;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingSummaryIndex;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.BulkheadGroup;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.OffsetPageRequest;
+import ru.practicum.shareit.util.Versioned;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -29,9 +63,17 @@ import java.util.stream.Collectors;
 public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
+    private final BookingHistory bookingHistory;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final BookingSummaryIndex bookingSummaryIndex;
+    private final ItemViewCache itemViewCache;
+    private final BookingEventPublisher bookingEventPublisher;
+    private final Validator validator;
 
+    @Bulkhead(BulkheadGroup.WRITES)
     @Override
     @Transactional
     public BookingResponseDto createBooking(Long userId, BookingCreateDto bookingCreateDto) {
@@ -39,27 +81,121 @@ public class BookingServiceImpl implements BookingService {
 
         Item item = getItemIfExists(bookingCreateDto.getItemId());
 
+        Booking saveBooking = bookingRepository.save(newBooking(booker, item, bookingCreateDto));
+        bookingIntervalIndex.reserve(item.getId(), BookingInterval.of(saveBooking));
+        bookingSummaryIndex.created(userId, item.getOwner().getId(), saveBooking.getStart(), saveBooking.getEnd());
+        itemViewCache.invalidateOwnerView(item.getId());
+        bookingEventPublisher.publish(BookingEventType.CREATED, saveBooking, item.getOwner().getId());
+        log.info("Создание бронирования с id {} вещи с id = {}, от пользователя с id = {}", saveBooking.getId(), item.getId(), userId);
+        return BookingMapper.toResponseDto(saveBooking);
+    }
+
+    // Пакет создаётся в одной транзакции. Пользователь, все вещи и их расписания читаются
+    // заранее тремя запросами, отклонённые бронирования в БД не попадают, принятые
+    // вставляются JDBC-батчами при flush
+    @Bulkhead(BulkheadGroup.WRITES)
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(Long userId, List<BookingCreateDto> bookingCreateDtos) {
+        User booker = getUserIfExists(userId);
+
+        Map<Long, Item> items = itemRepository.findAllById(bookingCreateDtos.stream()
+                        .filter(Objects::nonNull)
+                        .map(BookingCreateDto::getItemId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        bookingIntervalIndex.preload(items.keySet());
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingCreateDtos.size());
+        int created = 0;
+        for (int i = 0; i < bookingCreateDtos.size(); i++) {
+            BookingCreateDto dto = bookingCreateDtos.get(i);
+            try {
+                validate(dto);
+                Item item = items.get(dto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("Вещь с Id " + dto.getItemId() + " не найдена");
+                }
+                Booking booking = newBooking(booker, item, dto);
+                entityManager.persist(booking);
+                try {
+                    bookingIntervalIndex.reserve(item.getId(), BookingInterval.of(booking));
+                } catch (ConflictException e) {
+                    // Бронирование уже в контексте персистентности, вставлять его не нужно
+                    entityManager.remove(booking);
+                    throw e;
+                }
+                bookingSummaryIndex.created(userId, item.getOwner().getId(), booking.getStart(), booking.getEnd());
+                itemViewCache.invalidateOwnerView(item.getId());
+                bookingEventPublisher.publish(BookingEventType.CREATED, booking, item.getOwner().getId());
+                results.add(BookingBatchResultDto.builder()
+                        .index(i)
+                        .status(HttpStatus.CREATED.value())
+                        .booking(BookingMapper.toResponseDto(booking))
+                        .build());
+                created++;
+            } catch (NotFoundException | ValidationException | AccessDeniedException | ConflictException e) {
+                results.add(BookingBatchResultDto.builder()
+                        .index(i)
+                        .status(statusOf(e).value())
+                        .error(e.getMessage())
+                        .build());
+            }
+        }
+        entityManager.flush();
+        log.info("Пакетное создание бронирований пользователем с id = {}: создано {} из {}",
+                userId, created, bookingCreateDtos.size());
+        return results;
+    }
+
+    // Пакет проверяется поэлементно, а не аннотацией @Valid на списке: одно неверное
+    // бронирование не должно отклонять весь пакет
+    private void validate(BookingCreateDto dto) {
+        if (dto == null) {
+            throw new BadRequestException("Бронирование не может быть пустым");
+        }
+        Set<ConstraintViolation<BookingCreateDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private Booking newBooking(User booker, Item item, BookingCreateDto bookingCreateDto) {
         if (!item.getAvailable()) {
-            throw new ValidationException("Вещь с Id " + item.getId() + " не доступна для бронирования");
+            throw new BadRequestException("Вещь с Id " + item.getId() + " не доступна для бронирования");
         }
-        if (item.getOwner().getId().equals(userId)) {
+        if (item.getOwner().getId().equals(booker.getId())) {
             throw new AccessDeniedException("Владелец вещи не может забронировать свою вещь");
         }
-        if (bookingCreateDto.getEnd().isBefore(bookingCreateDto.getStart())) {
-            throw new ValidationException("Дата окончания бронирования должна быть позже даты начала бронирования");
+        // Время усекается до микросекунд, как его хранит БД: иначе драйвер округлит его
+        // при вставке, и интервал сохранённого бронирования разойдётся с прочитанным
+        LocalDateTime start = bookingCreateDto.getStart().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime end = bookingCreateDto.getEnd().truncatedTo(ChronoUnit.MICROS);
+        // Проверяется до вставки: иначе совпадающие даты нарушат ограничение end_date > start_date
+        // и вернутся ошибкой 500
+        if (!end.isAfter(start)) {
+            throw new BadRequestException("Дата окончания бронирования должна быть позже даты начала бронирования");
         }
-        Booking booking = Booking.builder()
-                .start(bookingCreateDto.getStart())
-                .end(bookingCreateDto.getEnd())
+        return Booking.builder()
+                .start(start)
+                .end(end)
                 .item(item)
                 .booker(booker)
                 .status(BookingStatus.WAITING)
                 .build();
-        Booking saveBooking = bookingRepository.save(booking);
-        log.info("Создание бронирования с id {} вещи с id = {}, от пользователя с id = {}", booking.getId(), item.getId(), userId);
-        return BookingMapper.toResponseDto(saveBooking);
     }
 
+    private static HttpStatus statusOf(RuntimeException e) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return status == null ? HttpStatus.BAD_REQUEST : status.code();
+    }
+
+    @Bulkhead(BulkheadGroup.WRITES)
     @Override
     @Transactional
     public BookingResponseDto updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
@@ -71,17 +207,71 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessDeniedException("Только владелец может подтвердить бронирование");
         }
 
-        if (booking.getStatus() != BookingStatus.WAITING) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        // Статус проверяется самим UPDATE, а не прочитанной выше сущностью:
+        // из двух одновременных запросов изменит статус только один
+        if (bookingRepository.updateWaitingStatus(List.of(bookingId), userId, status) == 0) {
             throw new AccessDeniedException("Нельзя извенить текущий статус бронирования");
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        booking.setStatus(status);
+        afterStatusChange(booking, userId, status);
         log.info("Обновление статуса бронирования с id = {}, новый статуст - {}", bookingId, booking.getStatus().toString());
         return BookingMapper.toResponseDto(booking);
     }
 
+    @Bulkhead(BulkheadGroup.WRITES)
+    @Override
+    @Transactional
+    public BookingStatusBatchDto updateBookingStatuses(Long userId, List<Long> bookingIds, Boolean approved) {
+        validateUserExists(userId);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        List<Booking> waiting = bookingRepository.findWaitingForUpdate(bookingIds, userId);
+        List<Long> updated = waiting.stream()
+                .map(Booking::getId)
+                .sorted()
+                .toList();
+        if (!updated.isEmpty()) {
+            bookingRepository.updateWaitingStatus(updated, userId, status);
+        }
+        waiting.forEach(booking -> afterStatusChange(booking, userId, status));
+
+        Set<Long> changed = new HashSet<>(updated);
+        List<Long> skipped = bookingIds.stream()
+                .distinct()
+                .filter(id -> !changed.contains(id))
+                .toList();
+        log.info("Пакетное обновление статуса бронирований владельцем с id = {}: {} изменено, {} пропущено",
+                userId, updated.size(), skipped.size());
+        return BookingStatusBatchDto.builder()
+                .status(status)
+                .updated(updated)
+                .skipped(skipped)
+                .build();
+    }
+
+    // Меняется статус только ожидающих подтверждения бронирований
+    private void afterStatusChange(Booking booking, Long ownerId, BookingStatus status) {
+        Long itemId = booking.getItem().getId();
+        if (status == BookingStatus.REJECTED) {
+            bookingIntervalIndex.release(itemId, BookingInterval.of(booking));
+        }
+        bookingSummaryIndex.statusChanged(booking.getBooker().getId(), ownerId, BookingStatus.WAITING, status);
+        itemViewCache.invalidateOwnerView(itemId);
+        bookingEventPublisher.publish(status == BookingStatus.APPROVED ? BookingEventType.APPROVED
+                : BookingEventType.REJECTED, booking, ownerId);
+    }
+
     public BookingResponseDto getBookingById(Long userId, Long bookingId) {
+        return getVersionedBookingById(userId, bookingId).body();
+    }
+
+    @Override
+    public Versioned<BookingResponseDto> getVersionedBookingById(Long userId, Long bookingId) {
         validateUserExists(userId);
-        Booking booking = getBookingIfExists(bookingId);
+        Booking booking = bookingHistory.findWithDetailsById(bookingId)
+                .orElseThrow(() ->
+                        new NotFoundException("Бронирование с Id " + bookingId + " не найдено"));
 
         boolean hasAccess = booking.getBooker().getId().equals(userId) ||
                 booking.getItem().getOwner().getId().equals(userId);
@@ -90,32 +280,52 @@ public class BookingServiceImpl implements BookingService {
             throw new AccessDeniedException("У вас нет доступа");
         }
         log.info("Получение бронирования с Id = {}", bookingId);
-        return BookingMapper.toResponseDto(booking);
+        return new Versioned<>(BookingMapper.toResponseDto(booking), bookingTag(bookingId,
+                booking.getVersion(), booking.getItem().getVersion(), booking.getBooker().getVersion()));
+    }
+
+    // Ответ содержит вещь и арендатора, поэтому тег зависит и от их версий.
+    // Чужому бронированию тег не выдаётся: ошибку вернёт getVersionedBookingById
+    @Override
+    public String getBookingETag(Long userId, Long bookingId) {
+        return bookingHistory.findVersionById(bookingId)
+                .filter(booking -> booking.bookerId().equals(userId) || booking.ownerId().equals(userId))
+                .map(booking -> bookingTag(bookingId,
+                        booking.version(), booking.itemVersion(), booking.bookerVersion()))
+                .orElse(null);
+    }
+
+    private static String bookingTag(Long bookingId, Long version, Long itemVersion, Long bookerVersion) {
+        return ETags.of("booking", bookingId, version, itemVersion, bookerVersion);
     }
 
 
+    @Bulkhead(BulkheadGroup.LISTINGS)
     @Override
-    public List<BookingResponseDto> getUserBooking(Long userId, String state) {
-        User user = getUserIfExists(userId);
+    public BookingPageDto getUserBooking(Long userId, String state, Integer from, Integer size, String cursor) {
+        validateUserExists(userId);
         BookingState bookingState = BookingState.parseState(state);
+        BookingCursor position = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        Pageable page = OffsetPageRequest.of(cursor == null ? from : 0, size);
+        LocalDateTime start = position.start();
+        Long lastId = position.id();
 
         List<Booking> bookings = switch (bookingState) {
-            case ALL -> bookingRepository.findByBookerOrderByStartDesc(user);
-            case CURRENT -> bookingRepository.findCurrentByBooker(userId, LocalDateTime.now());
-            case PAST -> bookingRepository.findPastByBooker(userId, LocalDateTime.now());
-            case FUTURE -> bookingRepository.findFutureByBooker(userId, LocalDateTime.now());
-            case WAITING -> bookingRepository.findByBookerAndStatusOrderByStartDesc(user, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByBookerAndStatusOrderByStartDesc(user, BookingStatus.REJECTED);
+            case ALL -> bookingHistory.findByBooker(userId, start, lastId, page);
+            case CURRENT -> bookingRepository.findCurrentByBooker(userId, LocalDateTime.now(), start, lastId, page);
+            case PAST -> bookingHistory.findPastByBooker(userId, LocalDateTime.now(), start, lastId, page);
+            case FUTURE -> bookingRepository.findFutureByBooker(userId, LocalDateTime.now(), start, lastId, page);
+            case WAITING -> bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING, start, lastId, page);
+            case REJECTED -> bookingHistory.findByBookerAndStatus(userId, BookingStatus.REJECTED, start, lastId, page);
         };
-        log.info("Получение всех бронирований пользователя с Id = {}", userId);
-        return bookings.stream()
-                .map(BookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+        log.info("Получение бронирований пользователя с Id = {}, найдено {}", userId, bookings.size());
+        return toPageDto(bookings, size);
     }
 
+    @Bulkhead(BulkheadGroup.LISTINGS)
     @Override
-    public List<BookingResponseDto> getOwnerBookings(Long userId, String state) {
-        User user = getUserIfExists(userId);
+    public BookingPageDto getOwnerBookings(Long userId, String state, Integer from, Integer size, String cursor) {
+        validateUserExists(userId);
 
         boolean hasItems = itemRepository.existsByOwnerId(userId);
 
@@ -124,19 +334,103 @@ public class BookingServiceImpl implements BookingService {
         }
 
         BookingState bookingState = BookingState.parseState(state);
+        BookingCursor position = cursor == null ? BookingCursor.FIRST : BookingCursor.decode(cursor);
+        Pageable page = OffsetPageRequest.of(cursor == null ? from : 0, size);
+        LocalDateTime start = position.start();
+        Long lastId = position.id();
 
         List<Booking> bookings = switch (bookingState) {
-            case ALL -> bookingRepository.findByItemOwnerOrderByStartDesc(user);
-            case CURRENT -> bookingRepository.findCurrentByItemOwner(userId, LocalDateTime.now());
-            case PAST -> bookingRepository.findPastByItemOwner(userId, LocalDateTime.now());
-            case FUTURE -> bookingRepository.findFutureByItemOwner(userId, LocalDateTime.now());
-            case WAITING -> bookingRepository.findByItemOwnerAndStatusOrderByStartDesc(user, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByItemOwnerAndStatusOrderByStartDesc(user, BookingStatus.REJECTED);
+            case ALL -> bookingHistory.findByItemOwner(userId, start, lastId, page);
+            case CURRENT -> bookingRepository.findCurrentByItemOwner(userId, LocalDateTime.now(), start, lastId, page);
+            case PAST -> bookingHistory.findPastByItemOwner(userId, LocalDateTime.now(), start, lastId, page);
+            case FUTURE -> bookingRepository.findFutureByItemOwner(userId, LocalDateTime.now(), start, lastId, page);
+            case WAITING -> bookingRepository.findByItemOwnerAndStatus(userId, BookingStatus.WAITING, start, lastId, page);
+            case REJECTED -> bookingHistory.findByItemOwnerAndStatus(userId, BookingStatus.REJECTED, start, lastId, page);
         };
-        log.info("Получение всех бронирований владельца предметов с Id = {}", userId);
-        return bookings.stream()
-                .map(BookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+        log.info("Получение бронирований владельца предметов с Id = {}, найдено {}", userId, bookings.size());
+        return toPageDto(bookings, size);
+    }
+
+    @Override
+    public BookingSummaryDto getUserSummary(Long userId) {
+        validateUserExists(userId);
+        BookingSummaryDto summary = bookingSummaryIndex.bookerSummary(userId);
+        log.info("Получение сводки бронирований пользователя с Id = {}, всего {}", userId, summary.getAll());
+        return summary;
+    }
+
+    @Override
+    public BookingSummaryDto getOwnerSummary(Long userId) {
+        validateUserExists(userId);
+
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new NotFoundException("Пользователь не является владельцем вещей");
+        }
+        BookingSummaryDto summary = bookingSummaryIndex.ownerSummary(userId);
+        log.info("Получение сводки бронирований владельца предметов с Id = {}, всего {}", userId, summary.getAll());
+        return summary;
+    }
+
+    // Проверки выгрузки выполняются до ответа: сама выгрузка идёт в асинхронном потоке,
+    // когда статус 200 уже отправлен, и ошибку клиенту вернуть не может
+    @Override
+    public BookingState checkUserExport(Long userId, String state) {
+        validateUserExists(userId);
+        return BookingState.parseState(state);
+    }
+
+    @Override
+    public BookingState checkOwnerExport(Long userId, String state) {
+        validateUserExists(userId);
+
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new NotFoundException("Пользователь не является владельцем вещей");
+        }
+        return BookingState.parseState(state);
+    }
+
+    @Override
+    public void streamUserBookings(Long userId, BookingState state, Consumer<BookingResponseDto> consumer) {
+        try (Stream<Booking> bookings = bookingHistory.streamByBooker(userId, state, LocalDateTime.now())) {
+            long count = writeStream(bookings, consumer);
+            log.info("Выгрузка бронирований пользователя с Id = {}, отправлено {}", userId, count);
+        }
+    }
+
+    @Override
+    public void streamOwnerBookings(Long userId, BookingState state, Consumer<BookingResponseDto> consumer) {
+        try (Stream<Booking> bookings = bookingHistory.streamByItemOwner(userId, state, LocalDateTime.now())) {
+            long count = writeStream(bookings, consumer);
+            log.info("Выгрузка бронирований владельца предметов с Id = {}, отправлено {}", userId, count);
+        }
+    }
+
+    // Каждая строка отдаётся потребителю сразу после маппинга, контекст персистентности
+    // периодически очищается, чтобы прочитанные сущности не копились в памяти. Состояние
+    // уже отобрано запросом, поэтому отправляется каждая прочитанная строка
+    private long writeStream(Stream<Booking> bookings, Consumer<BookingResponseDto> consumer) {
+        int clearEvery = Integer.parseInt(BookingRepository.FETCH_SIZE);
+        long count = 0;
+        for (Iterator<Booking> it = bookings.iterator(); it.hasNext(); ) {
+            consumer.accept(BookingMapper.toResponseDto(it.next()));
+            if (++count % clearEvery == 0) {
+                entityManager.clear();
+            }
+        }
+        return count;
+    }
+
+    // Без size список отдаётся до конца, как до появления страниц, и курсор не нужен
+    private BookingPageDto toPageDto(List<Booking> bookings, Integer size) {
+        String nextCursor = size == null || bookings.size() < size
+                ? null
+                : BookingCursor.after(bookings.getLast()).encode();
+        return BookingPageDto.builder()
+                .bookings(bookings.stream()
+                        .map(BookingMapper::toResponseDto)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     private void validateUserExists(Long userId) {
@@ -158,7 +452,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private Booking getBookingIfExists(Long bookingId) {
-        return bookingRepository.findById(bookingId)
+        return bookingRepository.findWithDetailsById(bookingId)
                 .orElseThrow(() ->
                         new NotFoundException("Бронирование с Id " + bookingId + " не найдено"));
     }
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.booking.storage;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.BookingBounds;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.summary.BookingTimes;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Архив завершённых бронирований. Все строки архива закончились раньше порога переноса,
+ * поэтому отдельных запросов для PAST нет: прошлые бронирования архива - это все его строки.
+ * Напрямую используется только BookingHistory и BookingArchiveJob.
+ */
+@Repository
+public interface BookingArchiveRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<ArchivedBooking> findWithDetailsById(Long id);
+
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.status = :status " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByItemOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<ArchivedBooking> findByItemOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByBooker(@Param("bookerId") Long bookerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.status = :status " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByItemOwner(@Param("ownerId") Long ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<ArchivedBooking> streamByItemOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingTimes(b.start, b.end, b.status) " +
+            "FROM ArchivedBooking b " +
+            "WHERE b.booker.id = :bookerId")
+    List<BookingTimes> findTimesByBooker(@Param("bookerId") Long bookerId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingTimes(b.start, b.end, b.status) " +
+            "FROM ArchivedBooking b " +
+            "WHERE b.item.owner.id = :ownerId")
+    List<BookingTimes> findTimesByItemOwner(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingVersion(" +
+            "b.id, bk.id, i.owner.id, b.version, i.version, bk.version) " +
+            "FROM ArchivedBooking b " +
+            "JOIN b.item i " +
+            "JOIN b.booker bk " +
+            "WHERE b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingBounds(b.item.id, MAX(b.end)) " +
+            "FROM ArchivedBooking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "GROUP BY b.item.id")
+    List<BookingBounds> findApprovedBounds(@Param("itemIds") Collection<Long> itemIds);
+
+    // Последнее подтверждённое бронирование каждой вещи из списка, одно на вещь
+    // и при равных датах окончания, как в BookingRepository.findLastAndNextForItems
+    @Query("SELECT b FROM ArchivedBooking b " +
+            "JOIN FETCH b.booker bk " +
+            "JOIN (" +
+            "SELECT p.id AS id, row_number() OVER (PARTITION BY p.item.id ORDER BY p.end DESC, p.id DESC) AS rn " +
+            "FROM ArchivedBooking p " +
+            "WHERE p.item.id IN :itemIds AND p.status = 'APPROVED'" +
+            ") r ON r.id = b.id " +
+            "WHERE r.rn = 1")
+    List<ArchivedBooking> findLastForItems(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT COUNT(b) > 0 FROM ArchivedBooking b " +
+            "WHERE b.booker.id = :bookerId " +
+            "AND b.item.id = :itemId " +
+            "AND b.status = 'APPROVED'")
+    boolean existsApprovedByBookerIdAndItemId(
+            @Param("bookerId") Long bookerId,
+            @Param("itemId") Long itemId);
+
+    // Копия строк из bookings с теми же id; удаляет их оттуда BookingRepository.deleteAllByIdIn
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ArchivedBooking (id, start, end, item, booker, status, created, version) " +
+            "SELECT b.id, b.start, b.end, b.item, b.booker, b.status, b.created, b.version " +
+            "FROM Booking b WHERE b.id IN :ids")
+    int copyFromBookings(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.event.BookingEventEntry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingEventRepository extends JpaRepository<BookingEventEntry, Long> {
+
+    // Недоставленные события по id, страницы по курсору afterId (ix_booking_events_delivered)
+    @Query("SELECT e FROM BookingEventEntry e " +
+            "WHERE e.deliveredAt IS NULL AND e.id > :afterId AND e.created < :createdBefore " +
+            "ORDER BY e.id")
+    List<BookingEventEntry> findUndelivered(@Param("afterId") Long afterId,
+                                            @Param("createdBefore") LocalDateTime createdBefore,
+                                            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE BookingEventEntry e SET e.deliveredAt = :deliveredAt " +
+            "WHERE e.id IN :ids AND e.deliveredAt IS NULL")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Modifying
+    @Query("DELETE FROM BookingEventEntry e WHERE e.deliveredAt < :before")
+    int deleteDeliveredBefore(@Param("before") LocalDateTime before);
+}
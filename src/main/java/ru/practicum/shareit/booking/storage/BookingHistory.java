@@ -0,0 +1,248 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingBounds;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.summary.BookingTimes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Бронирования вместе с архивом. Запросы, которым нужна история (ALL, PAST, REJECTED,
+ * выгрузка, право на комментарий, последнее бронирование вещи), читают обе таблицы
+ * и объединяют результат в порядке (start, id) по убыванию. Остальные состояния
+ * архив не затрагивают и читаются прямо из BookingRepository.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingHistory {
+
+    private static final Comparator<Booking> NEWEST_FIRST =
+            Comparator.comparing(Booking::getStart).thenComparing(Booking::getId).reversed();
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+
+    public Optional<Booking> findWithDetailsById(Long id) {
+        return bookingRepository.findWithDetailsById(id)
+                .or(() -> bookingArchiveRepository.findWithDetailsById(id).map(BookingMapper::toBooking));
+    }
+
+    public Optional<BookingVersion> findVersionById(Long id) {
+        return bookingRepository.findVersionById(id)
+                .or(() -> bookingArchiveRepository.findVersionById(id));
+    }
+
+    public List<Booking> findByBooker(Long bookerId, LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findByBooker(bookerId, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByBooker(bookerId, cursorStart, cursorId, head));
+    }
+
+    public List<Booking> findPastByBooker(Long bookerId, LocalDateTime currentTime,
+                                          LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findPastByBooker(bookerId, currentTime, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByBooker(bookerId, cursorStart, cursorId, head));
+    }
+
+    public List<Booking> findByBookerAndStatus(Long bookerId, BookingStatus status,
+                                               LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findByBookerAndStatus(bookerId, status, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByBookerAndStatus(bookerId, status, cursorStart, cursorId, head));
+    }
+
+    public List<Booking> findByItemOwner(Long ownerId, LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findByItemOwner(ownerId, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByItemOwner(ownerId, cursorStart, cursorId, head));
+    }
+
+    public List<Booking> findPastByItemOwner(Long ownerId, LocalDateTime currentTime,
+                                             LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findPastByItemOwner(ownerId, currentTime, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByItemOwner(ownerId, cursorStart, cursorId, head));
+    }
+
+    public List<Booking> findByItemOwnerAndStatus(Long ownerId, BookingStatus status,
+                                                  LocalDateTime cursorStart, Long cursorId, Pageable page) {
+        return merge(page,
+                head -> bookingRepository.findByItemOwnerAndStatus(ownerId, status, cursorStart, cursorId, head),
+                head -> bookingArchiveRepository.findByItemOwnerAndStatus(ownerId, status, cursorStart, cursorId,
+                        head));
+    }
+
+    // Выгрузка в состоянии state: условие состояния выполняет БД. Архив читается только
+    // для состояний, в которые попадают завершённые бронирования (ALL, PAST, REJECTED);
+    // все перенесённые бронирования закончились, поэтому для PAST архив читается целиком
+    public Stream<Booking> streamByBooker(Long bookerId, BookingState state, LocalDateTime currentTime) {
+        return switch (state) {
+            case ALL -> mergeOrdered(bookingRepository.streamByBooker(bookerId),
+                    archived(bookingArchiveRepository.streamByBooker(bookerId)));
+            case CURRENT -> bookingRepository.streamCurrentByBooker(bookerId, currentTime);
+            case PAST -> mergeOrdered(bookingRepository.streamPastByBooker(bookerId, currentTime),
+                    archived(bookingArchiveRepository.streamByBooker(bookerId)));
+            case FUTURE -> bookingRepository.streamFutureByBooker(bookerId, currentTime);
+            case WAITING -> bookingRepository.streamByBookerAndStatus(bookerId, BookingStatus.WAITING);
+            case REJECTED -> mergeOrdered(bookingRepository.streamByBookerAndStatus(bookerId, BookingStatus.REJECTED),
+                    archived(bookingArchiveRepository.streamByBookerAndStatus(bookerId, BookingStatus.REJECTED)));
+        };
+    }
+
+    public Stream<Booking> streamByItemOwner(Long ownerId, BookingState state, LocalDateTime currentTime) {
+        return switch (state) {
+            case ALL -> mergeOrdered(bookingRepository.streamByItemOwner(ownerId),
+                    archived(bookingArchiveRepository.streamByItemOwner(ownerId)));
+            case CURRENT -> bookingRepository.streamCurrentByItemOwner(ownerId, currentTime);
+            case PAST -> mergeOrdered(bookingRepository.streamPastByItemOwner(ownerId, currentTime),
+                    archived(bookingArchiveRepository.streamByItemOwner(ownerId)));
+            case FUTURE -> bookingRepository.streamFutureByItemOwner(ownerId, currentTime);
+            case WAITING -> bookingRepository.streamByItemOwnerAndStatus(ownerId, BookingStatus.WAITING);
+            case REJECTED -> mergeOrdered(
+                    bookingRepository.streamByItemOwnerAndStatus(ownerId, BookingStatus.REJECTED),
+                    archived(bookingArchiveRepository.streamByItemOwnerAndStatus(ownerId, BookingStatus.REJECTED)));
+        };
+    }
+
+    private static Stream<Booking> archived(Stream<ArchivedBooking> bookings) {
+        return bookings.map(BookingMapper::toBooking);
+    }
+
+    public boolean existsCompletedBooking(Long bookerId, Long itemId, LocalDateTime currentTime) {
+        return bookingRepository.existsByBookerIdAndItemIdAndEndBefore(bookerId, itemId, currentTime)
+                || bookingArchiveRepository.existsApprovedByBookerIdAndItemId(bookerId, itemId);
+    }
+
+    public List<BookingTimes> findTimesByBooker(Long bookerId) {
+        List<BookingTimes> times = new ArrayList<>(bookingRepository.findTimesByBooker(bookerId));
+        times.addAll(bookingArchiveRepository.findTimesByBooker(bookerId));
+        return times;
+    }
+
+    public List<BookingTimes> findTimesByItemOwner(Long ownerId) {
+        List<BookingTimes> times = new ArrayList<>(bookingRepository.findTimesByItemOwner(ownerId));
+        times.addAll(bookingArchiveRepository.findTimesByItemOwner(ownerId));
+        return times;
+    }
+
+    // Архив читается только для вещей, у которых в bookings нет завершённого бронирования:
+    // перенесённые бронирования закончились раньше всех оставшихся
+    public Optional<Booking> findLastBookingForItem(Long itemId, LocalDateTime currentTime) {
+        return bookingRepository.findLastBookingForItem(itemId, currentTime)
+                .or(() -> bookingArchiveRepository.findLastForItems(List.of(itemId)).stream()
+                        .findFirst()
+                        .map(BookingMapper::toBooking));
+    }
+
+    public List<Booking> findLastAndNextForItems(Collection<Long> itemIds, LocalDateTime currentTime) {
+        List<Booking> bookings = new ArrayList<>(bookingRepository.findLastAndNextForItems(itemIds, currentTime));
+        Set<Long> withLast = bookings.stream()
+                .filter(booking -> booking.getEnd().isBefore(currentTime))
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        List<Long> withoutLast = itemIds.stream()
+                .filter(itemId -> !withLast.contains(itemId))
+                .toList();
+        if (!withoutLast.isEmpty()) {
+            bookingArchiveRepository.findLastForItems(withoutLast).stream()
+                    .map(BookingMapper::toBooking)
+                    .forEach(bookings::add);
+        }
+        return bookings;
+    }
+
+    // Как и в findLastAndNextForItems, конец последнего бронирования берётся из архива
+    // только для вещей, у которых в bookings нет завершённого
+    public Map<Long, BookingBounds> findApprovedBounds(Collection<Long> itemIds, LocalDateTime currentTime) {
+        Map<Long, BookingBounds> bounds = new HashMap<>();
+        bookingRepository.findApprovedBounds(itemIds, currentTime)
+                .forEach(bound -> bounds.put(bound.itemId(), bound));
+        List<Long> withoutLast = itemIds.stream()
+                .filter(itemId -> bounds.get(itemId) == null || bounds.get(itemId).lastEnd() == null)
+                .toList();
+        if (!withoutLast.isEmpty()) {
+            bookingArchiveRepository.findApprovedBounds(withoutLast).forEach(archived -> bounds.merge(
+                    archived.itemId(), archived,
+                    (hot, old) -> new BookingBounds(hot.itemId(), old.lastEnd(), hot.nextStart())));
+        }
+        return bounds;
+    }
+
+    // Страница из двух источников: из каждого читается столько строк, сколько нужно
+    // до конца страницы, и они сливаются в общем порядке
+    private static List<Booking> merge(Pageable page,
+                                       Function<Pageable, List<Booking>> hot,
+                                       Function<Pageable, List<ArchivedBooking>> archive) {
+        Pageable head = PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, page.getOffset() + page.getPageSize()));
+        return Stream.concat(
+                        hot.apply(head).stream(),
+                        archive.apply(head).stream().map(BookingMapper::toBooking))
+                .sorted(NEWEST_FIRST)
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    // Слияние двух упорядоченных курсоров без чтения их целиком
+    private static Stream<Booking> mergeOrdered(Stream<Booking> first, Stream<Booking> second) {
+        Iterator<Booking> merged = new Iterator<>() {
+            private final Iterator<Booking> a = first.iterator();
+            private final Iterator<Booking> b = second.iterator();
+            private Booking nextA = a.hasNext() ? a.next() : null;
+            private Booking nextB = b.hasNext() ? b.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextA != null || nextB != null;
+            }
+
+            @Override
+            public Booking next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Booking result;
+                if (nextB == null || (nextA != null && NEWEST_FIRST.compare(nextA, nextB) <= 0)) {
+                    result = nextA;
+                    nextA = a.hasNext() ? a.next() : null;
+                } else {
+                    result = nextB;
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try (first) {
+                        second.close();
+                    }
+                });
+    }
+}
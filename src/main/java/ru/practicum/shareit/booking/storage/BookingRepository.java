@@ -1,42 +1,73 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingBounds;
+import ru.practicum.shareit.booking.model.BookingVersion;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.ItemBookingInterval;
+import ru.practicum.shareit.booking.summary.BookingTimes;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByItem_IdIn(List<Long> itemIds);
+    String FETCH_SIZE = "500";
 
-    List<Booking> findByBookerOrderByStartDesc(User booker);
+    // Бронирование вместе с вещью и арендатором одним запросом
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithDetailsById(Long id);
 
-    List<Booking> findByBookerAndStatusOrderByStartDesc(
-            User booker, BookingStatus status);
+    // Запросы списков возвращают одну страницу: сортировка по (start, id) по убыванию,
+    // следующая страница ищется от последней пары (start, id) без OFFSET
 
-    List<Booking> findByItemOwnerOrderByStartDesc(User owner);
-
-    List<Booking> findByItemOwnerAndStatusOrderByStartDesc(User owner, BookingStatus status);
+    // Все бронирования пользователя
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
-    // Текущие бронирования пользователч
+    // Текущие бронирования пользователя
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
             "JOIN FETCH b.booker bk " +
             "WHERE bk.id = :bookerId " +
             "AND b.start <= :currentTime " +
             "AND b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findCurrentByBooker(
             @Param("bookerId") Long bookerId,
-            @Param("currentTime") LocalDateTime currentTime);
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
     // Прошлые бронирования пользователя
     @Query("SELECT b FROM Booking b " +
@@ -44,10 +75,15 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "JOIN FETCH b.booker bk " +
             "WHERE bk.id = :bookerId " +
             "AND b.end < :currentTime " +
-            "ORDER BY b.start DESC")
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findPastByBooker(
             @Param("bookerId") Long bookerId,
-            @Param("currentTime") LocalDateTime currentTime);
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
     // Будущие бронирования пользователя
     @Query("SELECT b FROM Booking b " +
@@ -55,53 +91,246 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "JOIN FETCH b.booker bk " +
             "WHERE bk.id = :bookerId " +
             "AND b.start > :currentTime " +
-            "ORDER BY b.start DESC")
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findFutureByBooker(
             @Param("bookerId") Long bookerId,
-            @Param("currentTime") LocalDateTime currentTime);
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
+    // Бронирования пользователя с заданным статусом
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.status = :status " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    // Все бронирования вещей владельца
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByItemOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
     // Текущие
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
-            "JOIN FETCH b.booker " +
+            "JOIN FETCH b.booker bk " +
             "WHERE i.owner.id = :ownerId " +
-            "AND b.start <= :currentTime AND " +
-            "b.end >= :currentTime " +
-            "ORDER BY b.start DESC")
+            "AND b.start <= :currentTime " +
+            "AND b.end >= :currentTime " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findCurrentByItemOwner(
             @Param("ownerId") Long ownerId,
-            @Param("currentTime") LocalDateTime currentTime);
-
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
     // Прошлые
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
-            "JOIN FETCH b.booker " +
-            "WHERE i.owner.id = :ownerId AND " +
-            "b.end < :currentTime " +
-            "ORDER BY b.start DESC")
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.end < :currentTime " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findPastByItemOwner(
             @Param("ownerId") Long ownerId,
-            @Param("currentTime") LocalDateTime currentTime);
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
 
     // Будущие
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
-            "JOIN FETCH b.booker " +
-            "WHERE i.owner.id = :ownerId AND b.start > :currentTime " +
-            "ORDER BY b.start DESC")
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.start > :currentTime " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
     List<Booking> findFutureByItemOwner(
             @Param("ownerId") Long ownerId,
+            @Param("currentTime") LocalDateTime currentTime,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    // Бронирования вещей владельца с заданным статусом
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            "AND b.start <= :cursorStart " +
+            "AND (b.start < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByItemOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Pageable page);
+
+    // Потоковое чтение истории для выгрузки: строки читаются из курсора порциями
+    // по FETCH_SIZE, условия состояний те же, что и у списков, но без страниц
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByBooker(@Param("bookerId") Long bookerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.start <= :currentTime " +
+            "AND b.end >= :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamCurrentByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.end < :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamPastByBooker(
+            @Param("bookerId") Long bookerId,
             @Param("currentTime") LocalDateTime currentTime);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.start > :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamFutureByBooker(
+            @Param("bookerId") Long bookerId,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE bk.id = :bookerId " +
+            "AND b.status = :status " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByBookerAndStatus(
+            @Param("bookerId") Long bookerId,
+            @Param("status") BookingStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByItemOwner(@Param("ownerId") Long ownerId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.start <= :currentTime " +
+            "AND b.end >= :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamCurrentByItemOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.end < :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamPastByItemOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.start > :currentTime " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamFutureByItemOwner(
+            @Param("ownerId") Long ownerId,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.item i " +
+            "JOIN FETCH b.booker bk " +
+            "WHERE i.owner.id = :ownerId " +
+            "AND b.status = :status " +
+            "ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByItemOwnerAndStatus(
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status);
+
     @Query("SELECT b FROM Booking b " +
             "JOIN FETCH b.item i " +
             "JOIN FETCH b.booker bk " +
             "WHERE i.id = :itemId " +
             "AND b.end < :currentTime " +
             "AND b.status = 'APPROVED' " +
-            "ORDER BY b.end DESC " +
+            "ORDER BY b.end DESC, b.id DESC " +
             "LIMIT 1")
     Optional<Booking> findLastBookingForItem(
             @Param("itemId") Long itemId,
@@ -114,12 +343,123 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE i.id = :itemId " +
             "AND b.start > :currentTime " +
             "AND b.status = 'APPROVED' " +
-            "ORDER BY b.start ASC " +
+            "ORDER BY b.start ASC, b.id ASC " +
             "LIMIT 1")
     Optional<Booking> findNextBookingForItem(
             @Param("itemId") Long itemId,
             @Param("currentTime") LocalDateTime currentTime);
 
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingVersion(" +
+            "b.id, bk.id, i.owner.id, b.version, i.version, bk.version) " +
+            "FROM Booking b " +
+            "JOIN b.item i " +
+            "JOIN b.booker bk " +
+            "WHERE b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.BookingBounds(b.item.id, " +
+            "MAX(CASE WHEN b.end < :currentTime THEN b.end END), " +
+            "MIN(CASE WHEN b.start > :currentTime THEN b.start END)) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = 'APPROVED' " +
+            "GROUP BY b.item.id")
+    List<BookingBounds> findApprovedBounds(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    // Время и статус всех бронирований пользователя для сводки по состояниям
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingTimes(b.start, b.end, b.status) " +
+            "FROM Booking b " +
+            "WHERE b.booker.id = :bookerId")
+    List<BookingTimes> findTimesByBooker(@Param("bookerId") Long bookerId);
+
+    @Query("SELECT new ru.practicum.shareit.booking.summary.BookingTimes(b.start, b.end, b.status) " +
+            "FROM Booking b " +
+            "WHERE b.item.owner.id = :ownerId")
+    List<BookingTimes> findTimesByItemOwner(@Param("ownerId") Long ownerId);
+
+    // Интервалы активных бронирований вещи без загрузки сущностей. Ещё не вставленные
+    // бронирования текущей транзакции индекс интервалов хранит сам, поэтому запрос
+    // не выталкивает их в БД и не разбивает JDBC-батч пакетной вставки
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT new ru.practicum.shareit.booking.interval.BookingInterval(b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.status IN :statuses " +
+            "AND b.end > :currentTime")
+    List<BookingInterval> findActiveIntervals(
+            @Param("itemId") Long itemId,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    // То же для нескольких вещей одним запросом
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT new ru.practicum.shareit.booking.interval.ItemBookingInterval(b.item.id, b.id, b.start, b.end) " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status IN :statuses " +
+            "AND b.end > :currentTime")
+    List<ItemBookingInterval> findActiveIntervalsForItems(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    // Последнее завершённое и ближайшее будущее подтверждённые бронирования каждой вещи:
+    // первое в своей стороне по row_number() внутри вещи. Каждая сторона читает
+    // диапазон индекса (item_id, status, end_date) или (item_id, status, start_date),
+    // при равных датах выбирается бронирование с большим (последнее) или меньшим
+    // (следующее) id, чтобы на вещь и сторону приходилась ровно одна строка
+    @Query("SELECT b FROM Booking b " +
+            "JOIN (" +
+            "SELECT p.id AS id, row_number() OVER (PARTITION BY p.item.id ORDER BY p.end DESC, p.id DESC) AS rn " +
+            "FROM Booking p " +
+            "WHERE p.item.id IN :itemIds AND p.status = 'APPROVED' AND p.end < :currentTime " +
+            "UNION ALL " +
+            "SELECT f.id AS id, row_number() OVER (PARTITION BY f.item.id ORDER BY f.start ASC, f.id ASC) AS rn " +
+            "FROM Booking f " +
+            "WHERE f.item.id IN :itemIds AND f.status = 'APPROVED' AND f.start > :currentTime" +
+            ") r ON r.id = b.id " +
+            "WHERE r.rn = 1")
+    List<Booking> findLastAndNextForItems(
+            @Param("itemIds") Collection<Long> itemIds,
+            @Param("currentTime") LocalDateTime currentTime);
+
+    // Ожидающие подтверждения бронирования из списка по вещам владельца,
+    // заблокированные до конца транзакции
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.id IN :ids " +
+            "AND b.status = 'WAITING' " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    List<Booking> findWaitingForUpdate(
+            @Param("ids") Collection<Long> ids,
+            @Param("ownerId") Long ownerId);
+
+    // Смена статуса одним условным UPDATE: меняются только ожидающие бронирования
+    // вещей владельца, поэтому параллельные подтверждение и отклонение не затирают друг друга
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids " +
+            "AND b.status = 'WAITING' " +
+            "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateWaitingStatus(
+            @Param("ids") Collection<Long> ids,
+            @Param("ownerId") Long ownerId,
+            @Param("status") BookingStatus status);
+
+    // Завершённые до порога бронирования для переноса в архив, порциями по id.
+    // Ожидающие подтверждения остаются: их ищут списки WAITING без архива
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.end < :threshold " +
+            "AND b.status <> 'WAITING' " +
+            "ORDER BY b.id")
+    List<Long> findArchivableIds(@Param("threshold") LocalDateTime threshold, Pageable page);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
             "AND b.item.id = :itemId " +
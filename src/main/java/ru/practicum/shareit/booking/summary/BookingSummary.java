@@ -0,0 +1,111 @@
+package ru.practicum.shareit.booking.summary;
+
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Счётчики бронирований одного пользователя. Статусы считаются напрямую, а FUTURE,
+ * CURRENT и PAST зависят от текущего времени, поэтому вместо них хранятся
+ * отсортированные начала и концы бронирований в микросекундах: будущие - это начала
+ * позже now, прошедшие - концы раньше now, остальные текущие. Оба подсчёта - бинарный
+ * поиск, пересчитывать сами бронирования с ходом времени не нужно.
+ * Не потокобезопасен, доступ защищает BookingSummaryIndex.
+ */
+final class BookingSummary {
+
+    private final Map<BookingStatus, Long> statuses = new EnumMap<>(BookingStatus.class);
+    private long[] starts;
+    private long[] ends;
+    private int size;
+
+    BookingSummary(Collection<BookingTimes> bookings) {
+        starts = new long[Math.max(bookings.size(), 8)];
+        ends = new long[starts.length];
+        for (BookingTimes booking : bookings) {
+            starts[size] = micros(booking.start());
+            ends[size] = micros(booking.end());
+            size++;
+            statuses.merge(booking.status(), 1L, Long::sum);
+        }
+        Arrays.sort(starts, 0, size);
+        Arrays.sort(ends, 0, size);
+    }
+
+    void add(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size + (size >> 1));
+            ends = Arrays.copyOf(ends, starts.length);
+        }
+        insert(starts, micros(start));
+        insert(ends, micros(end));
+        size++;
+        statuses.merge(status, 1L, Long::sum);
+    }
+
+    void changeStatus(BookingStatus from, BookingStatus to) {
+        statuses.merge(from, -1L, Long::sum);
+        statuses.merge(to, 1L, Long::sum);
+    }
+
+    BookingSummaryDto toDto(LocalDateTime now) {
+        long current = micros(now);
+        int future = size - upperBound(starts, current);
+        int past = lowerBound(ends, current);
+        return BookingSummaryDto.builder()
+                .all(size)
+                .future(future)
+                .past(past)
+                .current(size - future - past)
+                .waiting(statuses.getOrDefault(BookingStatus.WAITING, 0L))
+                .rejected(statuses.getOrDefault(BookingStatus.REJECTED, 0L))
+                .build();
+    }
+
+    private void insert(long[] values, long value) {
+        int position = upperBound(values, value);
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+    }
+
+    // Первый элемент больше value
+    private int upperBound(long[] values, long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Первый элемент не меньше value
+    private int lowerBound(long[] values, long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Время в БД хранится с точностью до микросекунд
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
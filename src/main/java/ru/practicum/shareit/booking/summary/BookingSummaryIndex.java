@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking.summary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.storage.BookingHistory;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Число бронирований по состояниям для каждого арендатора и каждого владельца вещей.
+ * Сводка пользователя загружается из bookings и архива при первом запросе, дальше
+ * её поддерживают создание бронирований и смена статуса.
+ * Изменение пишущей транзакции откладывается до её коммита и применяется под той же
+ * блокировкой, что и загрузка: до коммита другие читатели не видят незафиксированных
+ * бронирований, при откате сводка не меняется. Пока у пользователя есть незавершённые
+ * изменения, загруженная сводка в кэш не попадает: после коммита к ней не применится
+ * изменение, которое она, возможно, уже содержит. Срок жизни записи ограничивает
+ * ошибку, если БД изменили в обход сервисов.
+ */
+@Slf4j
+@Component
+public class BookingSummaryIndex {
+
+    private static final int STRIPES = 64;
+
+    private final Summaries bookers;
+    private final Summaries owners;
+
+    public BookingSummaryIndex(BookingHistory bookingHistory,
+                               @Value("${shareit.booking.summary.max-size:10000}") long maxSize,
+                               @Value("${shareit.booking.summary.ttl:1h}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        bookers = new Summaries("booker", bookingHistory::findTimesByBooker, maxSize, ttl, meterRegistry);
+        owners = new Summaries("owner", bookingHistory::findTimesByItemOwner, maxSize, ttl, meterRegistry);
+    }
+
+    public BookingSummaryDto bookerSummary(Long bookerId) {
+        return bookers.summary(bookerId);
+    }
+
+    public BookingSummaryDto ownerSummary(Long ownerId) {
+        return owners.summary(ownerId);
+    }
+
+    /**
+     * Учитывает бронирование, созданное в текущей транзакции.
+     */
+    public void created(Long bookerId, Long ownerId, LocalDateTime start, LocalDateTime end) {
+        Consumer<BookingSummary> change = summary -> summary.add(start, end, BookingStatus.WAITING);
+        bookers.change(bookerId, change);
+        owners.change(ownerId, change);
+    }
+
+    /**
+     * Учитывает смену статуса бронирования в текущей транзакции.
+     */
+    public void statusChanged(Long bookerId, Long ownerId, BookingStatus from, BookingStatus to) {
+        Consumer<BookingSummary> change = summary -> summary.changeStatus(from, to);
+        bookers.change(bookerId, change);
+        owners.change(ownerId, change);
+    }
+
+    /**
+     * Сбрасывает все сводки после коммита: бронирования удалены каскадом вместе
+     * с вещью или пользователем.
+     */
+    public void invalidateAll() {
+        AfterCommit.run(() -> {
+            bookers.invalidateAll();
+            owners.invalidateAll();
+        });
+    }
+
+    private static final class Summaries {
+
+        private final String role;
+        private final Function<Long, List<BookingTimes>> loader;
+        private final Cache<Long, BookingSummary> cache;
+        // Число незавершённых транзакций, изменивших сводку пользователя
+        private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+        private final ReentrantLock[] locks = createLocks();
+
+        Summaries(String role, Function<Long, List<BookingTimes>> loader,
+                  long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+            this.role = role;
+            this.loader = loader;
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "bookingSummaries", "role", role);
+        }
+
+        BookingSummaryDto summary(Long userId) {
+            LocalDateTime now = LocalDateTime.now();
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                BookingSummary summary = cache.getIfPresent(userId);
+                if (summary == null) {
+                    List<BookingTimes> bookings = loader.apply(userId);
+                    summary = new BookingSummary(bookings);
+                    if (!pending.containsKey(userId)) {
+                        cache.put(userId, summary);
+                    }
+                    log.debug("Загружена сводка бронирований ({}) пользователя с Id = {}: {} бронирований",
+                            role, userId, bookings.size());
+                }
+                return summary.toDto(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void change(Long userId, Consumer<BookingSummary> change) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                apply(userId, change);
+                return;
+            }
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                pending.merge(userId, 1, Integer::sum);
+            } finally {
+                lock.unlock();
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(userId, status == STATUS_COMMITTED ? change : null);
+                }
+            });
+        }
+
+        void invalidateAll() {
+            cache.invalidateAll();
+        }
+
+        private void apply(Long userId, Consumer<BookingSummary> change) {
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                BookingSummary summary = cache.getIfPresent(userId);
+                if (summary != null) {
+                    change.accept(summary);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Изменение null означает откат: сводка остаётся прежней
+        private void complete(Long userId, Consumer<BookingSummary> change) {
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                pending.computeIfPresent(userId, (id, count) -> count == 1 ? null : count - 1);
+                if (change != null) {
+                    apply(userId, change);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private ReentrantLock lockFor(Long userId) {
+            return locks[Math.floorMod(Long.hashCode(userId), STRIPES)];
+        }
+
+        private static ReentrantLock[] createLocks() {
+            ReentrantLock[] locks = new ReentrantLock[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            return locks;
+        }
+    }
+}
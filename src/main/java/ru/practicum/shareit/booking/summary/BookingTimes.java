@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.summary;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Время и статус бронирования - всё, что нужно для подсчёта его состояний.
+ */
+public record BookingTimes(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Выполняет методы с @Bulkhead в квоте группы. Стоит снаружи @Transactional
+ * (наивысший приоритет): место занимается до того, как транзакция возьмёт соединение.
+ * Вложенный вызов метода той же группы в том же потоке место повторно не занимает.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class BulkheadAspect {
+
+    private static final ThreadLocal<Set<BulkheadGroup>> HELD =
+            ThreadLocal.withInitial(() -> EnumSet.noneOf(BulkheadGroup.class));
+
+    private final Bulkheads bulkheads;
+
+    @Around("@annotation(ru.practicum.shareit.bulkhead.Bulkhead)")
+    public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+        BulkheadGroup group = groupOf(joinPoint);
+        Set<BulkheadGroup> held = HELD.get();
+        if (held.contains(group) || !bulkheads.acquire(group)) {
+            return joinPoint.proceed();
+        }
+        held.add(group);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            held.remove(group);
+            bulkheads.release(group);
+        }
+    }
+
+    private static BulkheadGroup groupOf(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Method target = AopUtils.getMostSpecificMethod(method, joinPoint.getTarget().getClass());
+        return AnnotationUtils.findAnnotation(target, Bulkhead.class).value();
+    }
+}
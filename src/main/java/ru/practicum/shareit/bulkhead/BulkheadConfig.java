@@ -0,0 +1,28 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Квоты соединений основного пула для поиска, больших списков, выгрузок и записи
+ * (shareit.bulkhead.enabled). Пул один, поэтому квоты не добавляют соединений
+ * к базе и работают вместе с маршрутизацией чтения в реплики.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    @Bean
+    public Bulkheads bulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new Bulkheads(properties, meterRegistry);
+    }
+
+    @Bean
+    public BulkheadAspect bulkheadAspect(Bulkheads bulkheads) {
+        return new BulkheadAspect(bulkheads);
+    }
+}
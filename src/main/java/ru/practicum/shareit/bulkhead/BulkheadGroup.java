@@ -0,0 +1,16 @@
+package ru.practicum.shareit.bulkhead;
+
+/**
+ * Группы методов сервисов, которые делят соединения основного пула по квотам.
+ */
+public enum BulkheadGroup {
+    // Поиск вещей: запрос LIKE, если индекс поиска не готов
+    SEARCH,
+    // Большие списки: бронирования по состояниям, вещи владельца, чужие запросы
+    LISTINGS,
+    // Выгрузка истории NDJSON: держит соединение всё время выгрузки. Место занимает
+    // контроллер до начала ответа, а не аннотация на методе сервиса
+    EXPORT,
+    // Создание бронирований и смена их статуса
+    WRITES
+}
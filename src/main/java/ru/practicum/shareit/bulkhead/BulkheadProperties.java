@@ -0,0 +1,27 @@
+package ru.practicum.shareit.bulkhead;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("shareit.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    // Квоты групп; группа без квоты не ограничивается
+    private Map<BulkheadGroup, Limit> groups = new EnumMap<>(BulkheadGroup.class);
+
+    @Data
+    public static class Limit {
+        // Сколько методов группы выполняется одновременно
+        private int maxConcurrent;
+
+        // Сколько ждать места, прежде чем ответить 503
+        private Duration maxWait = Duration.ZERO;
+    }
+}
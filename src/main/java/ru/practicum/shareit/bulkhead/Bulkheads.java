@@ -0,0 +1,122 @@
+package ru.practicum.shareit.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ru.practicum.shareit.exception.BulkheadFullException;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Семафоры групп BulkheadGroup над одним пулом соединений. Место занимается до начала
+ * транзакции, поэтому ожидающий запрос соединения не держит. Соединение возвращается
+ * в пул в конце транзакции (open-in-view выключен, handling_mode
+ * DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION), то есть раньше, чем освобождается
+ * место, поэтому группа не может занять больше max-concurrent соединений.
+ * Метрики по тегу group: bulkhead.active, bulkhead.max, bulkhead.wait (время ожидания
+ * места) и bulkhead.rejected.
+ */
+public class Bulkheads {
+
+    private final Map<BulkheadGroup, Compartment> compartments = new EnumMap<>(BulkheadGroup.class);
+
+    public Bulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        properties.getGroups().forEach((group, limit) ->
+                compartments.put(group, new Compartment(group, limit, meterRegistry)));
+    }
+
+    /**
+     * Занимает место в группе, ожидая не дольше max-wait. false - группа без квоты,
+     * освобождать нечего.
+     */
+    public boolean acquire(BulkheadGroup group) throws InterruptedException {
+        Compartment compartment = compartments.get(group);
+        if (compartment == null) {
+            return false;
+        }
+        compartment.acquire();
+        return true;
+    }
+
+    public void release(BulkheadGroup group) {
+        compartments.get(group).semaphore.release();
+    }
+
+    /**
+     * Занимает место для работы, которая переживает вызов метода, например асинхронной
+     * выгрузки: место держится до первого close() у результата, повторные вызовы ничего
+     * не делают.
+     */
+    public Permit enter(BulkheadGroup group) {
+        try {
+            return acquire(group) ? new Permit(this, group) : Permit.NONE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException("Ожидание места (" + group + ") прервано, повторите попытку позже");
+        }
+    }
+
+    public static final class Permit implements AutoCloseable {
+
+        // Группа без квоты или квоты выключены: освобождать нечего
+        public static final Permit NONE = new Permit(null, null);
+
+        private final Bulkheads bulkheads;
+        private final BulkheadGroup group;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkheads bulkheads, BulkheadGroup group) {
+            this.bulkheads = bulkheads;
+            this.group = group;
+        }
+
+        @Override
+        public void close() {
+            if (bulkheads != null && released.compareAndSet(false, true)) {
+                bulkheads.release(group);
+            }
+        }
+    }
+
+    private static final class Compartment {
+
+        private final BulkheadGroup group;
+        private final int maxConcurrent;
+        private final long maxWaitNanos;
+        private final Semaphore semaphore;
+        private final Timer wait;
+        private final Counter rejected;
+
+        Compartment(BulkheadGroup group, BulkheadProperties.Limit limit, MeterRegistry meterRegistry) {
+            this.group = group;
+            this.maxConcurrent = limit.getMaxConcurrent();
+            this.maxWaitNanos = limit.getMaxWait().toNanos();
+            // Честная очередь: при нехватке мест первым получает место дольше ждущий
+            this.semaphore = new Semaphore(maxConcurrent, true);
+            String tag = group.name();
+            Gauge.builder("bulkhead.active", semaphore, s -> maxConcurrent - s.availablePermits())
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.max", () -> maxConcurrent)
+                    .tag("group", tag)
+                    .register(meterRegistry);
+            this.wait = Timer.builder("bulkhead.wait").tag("group", tag).register(meterRegistry);
+            this.rejected = meterRegistry.counter("bulkhead.rejected", "group", tag);
+        }
+
+        void acquire() throws InterruptedException {
+            long start = System.nanoTime();
+            boolean acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejected.increment();
+                throw new BulkheadFullException("Сервис перегружен (" + group + "), повторите попытку позже");
+            }
+        }
+    }
+}
@@ -2,4 +2,5 @@ package ru.practicum.shareit.constants;
 
 public final class HttpHeadersConstants {
     public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 }
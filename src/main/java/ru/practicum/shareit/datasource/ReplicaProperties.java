@@ -0,0 +1,38 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("shareit.datasource.replicas")
+public class ReplicaProperties {
+
+    private boolean enabled;
+
+    private List<Pool> pools = new ArrayList<>();
+
+    // Размер пула соединений каждой реплики
+    private int maximumPoolSize = 5;
+
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    // Реплика с большим отставанием исключается из чтения до следующей проверки
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    // Отставание реплики в секундах; NULL - база не является репликой
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    @Data
+    public static class Pool {
+        private String url;
+
+        // По умолчанию учётные данные основной базы
+        private String username;
+        private String password;
+    }
+}
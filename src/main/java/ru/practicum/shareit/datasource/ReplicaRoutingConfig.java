@@ -0,0 +1,91 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение из реплик (shareit.datasource.replicas.enabled=true). Основной пул
+ * настраивается как обычно через spring.datasource, реплики - через
+ * shareit.datasource.replicas.pools[n]. Read-only транзакции сервисов идут в реплики,
+ * поэтому сразу после записи чтение может вернуть данные с отставанием до max-lag.
+ * Маршрут выбирается по каждой транзакции: соединение возвращается в конце транзакции
+ * (hibernate.connection.handling_mode в application.properties).
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.datasource.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaSet replicaSet(ReplicaProperties properties, DataSourceProperties primary,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        List<ReplicaSet.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getPools().size(); i++) {
+            ReplicaProperties.Pool pool = properties.getPools().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(pool.getUrl());
+            dataSource.setUsername(pool.getUsername() != null ? pool.getUsername() : primary.determineUsername());
+            dataSource.setPassword(pool.getPassword() != null ? pool.getPassword() : primary.determinePassword());
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new ReplicaSet.Replica(dataSource.getPoolName(), dataSource));
+        }
+        return new ReplicaSet(replicas, properties.getLagQuery(), properties.getMaxLag(),
+                properties.getCheckInterval());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaSet replicaSet) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaSet);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaSet replicaSet) {
+        return () -> {
+            Map<String, Object> details = new LinkedHashMap<>();
+            for (ReplicaSet.Replica replica : replicaSet.getReplicas()) {
+                Map<String, Object> state = new LinkedHashMap<>();
+                state.put("healthy", replica.isHealthy());
+                if (replica.getLag() != null) {
+                    state.put("lagMs", replica.getLag().toMillis());
+                }
+                if (replica.getError() != null) {
+                    state.put("error", replica.getError());
+                }
+                details.put(replica.getName(), state);
+            }
+            // Без исправных реплик чтения обслуживает основная база, сервис остаётся доступен
+            return Health.up().withDetails(details).build();
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реплики для read-only транзакций. Фоновая проверка выполняет lag-query на каждой
+ * реплике: недоступная реплика, реплика с отставанием больше max-lag или база,
+ * которая не является репликой, исключаются из чтения до следующей успешной проверки.
+ * Среди исправных реплик чтения распределяются по кругу.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    @Getter
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Duration checkInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaSet(List<Replica> replicas, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+    }
+
+    // Первая проверка синхронная: до неё все чтения идут в основную базу
+    public void start() {
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-health").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::check, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Исправная реплика для очередного чтения или null, если читать можно только из основной базы.
+     */
+    public Replica select() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    public void check() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                Duration lag = measureLag(replica.getDataSource());
+                replica.lag = lag;
+                if (lag == null) {
+                    replica.markUnhealthy("не является репликой");
+                } else if (lag.compareTo(maxLag) > 0) {
+                    replica.markUnhealthy("отставание " + lag.toMillis() + " мс больше " + maxLag.toMillis() + " мс");
+                } else {
+                    replica.healthy = true;
+                    replica.error = null;
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lag = null;
+                replica.markUnhealthy(e.getMessage());
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                log.warn("Реплика {} {}", replica.getName(),
+                        replica.isHealthy() ? "снова принимает чтения" : "исключена из чтения: " + replica.getError());
+            }
+        }
+    }
+
+    private Duration measureLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next() || !(resultSet.getObject(1) instanceof Number seconds)) {
+                return null;
+            }
+            return Duration.ofMillis(Math.round(seconds.doubleValue() * 1000));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable pool) {
+                try {
+                    pool.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть пул реплики {}: {}", replica.getName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile Duration lag;
+        private volatile String error = "ещё не проверялась";
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markUnhealthy(String error) {
+            this.healthy = false;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.exception;
+
+import jakarta.validation.ValidationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends ValidationException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.item;
+
+public enum ItemImportFormat {
+    // Первая строка - заголовок с именами полей ItemCreateDto
+    CSV,
+    // Один JSON-объект ItemCreateDto в строке
+    NDJSON
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.item.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Собранные карточки вещей. Публичная карточка (вещь и комментарии) одинакова
+ * для всех, кроме владельца; карточка владельца дополнительно содержит последнее
+ * и следующее бронирования. Кэши ограничены по размеру и по времени жизни записи:
+ * последнее и следующее бронирования меняются и без записи в БД, с ходом времени.
+ * Сброс выполняется после коммита пишущей транзакции. Загрузка идёт в потоке
+ * читателя вне блокировок кэша, одновременные чтения той же вещи ждут уже начатую
+ * загрузку. Сброс удаляет и незавершённую загрузку, поэтому прочитанное до коммита
+ * значение в кэше не остаётся.
+ * С shareit.item.cache.json.enabled карточка сериализуется один раз при загрузке
+ * и отдаётся готовыми байтами JSON; тогда кэши ограничены суммарным размером
+ * этих байтов (json.max-bytes на каждый), а не числом записей.
+ */
+@Component
+public class ItemViewCache {
+
+    private final AsyncCache<Long, ItemView> publicViews;
+    private final AsyncCache<Long, ItemView> ownerViews;
+    private final ObjectMapper objectMapper;
+    private final boolean cacheJson;
+
+    public ItemViewCache(@Value("${shareit.item.cache.max-size:10000}") long maxSize,
+                         @Value("${shareit.item.cache.ttl:30s}") Duration ttl,
+                         @Value("${shareit.item.cache.json.enabled:false}") boolean cacheJson,
+                         @Value("${shareit.item.cache.json.max-bytes:32MB}") DataSize maxBytes,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.cacheJson = cacheJson;
+        publicViews = build(maxSize, ttl, cacheJson ? maxBytes : null);
+        ownerViews = build(maxSize, ttl, cacheJson ? maxBytes : null);
+        CaffeineCacheMetrics.monitor(meterRegistry, publicViews.synchronous(), "itemViews", "view", "public");
+        CaffeineCacheMetrics.monitor(meterRegistry, ownerViews.synchronous(), "itemViews", "view", "owner");
+    }
+
+    public ItemView getPublicView(Long itemId, Supplier<ItemView> loader) {
+        return get(publicViews, itemId, loader);
+    }
+
+    public ItemView getOwnerView(Long itemId, Supplier<ItemView> loader) {
+        return get(ownerViews, itemId, loader);
+    }
+
+    // Синхронная загрузка в Cache.get шла бы внутри ConcurrentHashMap.compute: чтение из БД
+    // задерживало бы другие ключи той же корзины, а виртуальный поток, ждущий там
+    // соединения или параллельных чтений, занимал бы поток-носитель. Поэтому в кэш кладётся
+    // пустой future, а загрузка идёт после выхода из get. Через AsyncCache.get, а не
+    // asMap(), чтобы кэш считал попадания и промахи для метрик itemViews
+    private ItemView get(AsyncCache<Long, ItemView> cache, Long itemId, Supplier<ItemView> loader) {
+        CompletableFuture<ItemView> loading = new CompletableFuture<>();
+        CompletableFuture<ItemView> cached = cache.get(itemId, (id, executor) -> loading);
+        if (cached != loading) {
+            return join(cached);
+        }
+        try {
+            ItemView view = withJson(loader.get());
+            loading.complete(view);
+            return view;
+        } catch (RuntimeException | Error e) {
+            cache.asMap().remove(itemId, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static ItemView join(CompletableFuture<ItemView> loading) {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * JSON карточки: сохранённый в кэше или, если байты не кэшируются, собранный заново.
+     */
+    public byte[] toJson(ItemView view) {
+        return view.json() != null ? view.json() : serialize(view.item());
+    }
+
+    private ItemView withJson(ItemView view) {
+        return cacheJson
+                ? new ItemView(view.ownerId(), view.item(), view.version(), serialize(view.item()))
+                : view;
+    }
+
+    private byte[] serialize(ItemResponseDto item) {
+        try {
+            return objectMapper.writeValueAsBytes(item);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Сбрасывает обе карточки вещи: изменились сама вещь или её комментарии.
+     */
+    public void invalidate(Long itemId) {
+        AfterCommit.run(() -> {
+            publicViews.synchronous().invalidate(itemId);
+            ownerViews.synchronous().invalidate(itemId);
+        });
+    }
+
+    /**
+     * Сбрасывает карточку владельца: изменились бронирования вещи.
+     */
+    public void invalidateOwnerView(Long itemId) {
+        AfterCommit.run(() -> ownerViews.synchronous().invalidate(itemId));
+    }
+
+    private static AsyncCache<Long, ItemView> build(long maxSize, Duration ttl, DataSize maxBytes) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats();
+        if (maxBytes == null) {
+            return builder.maximumSize(maxSize).buildAsync();
+        }
+        return builder
+                .maximumWeight(maxBytes.toBytes())
+                .<Long, ItemView>weigher((itemId, view) -> view.json().length)
+                .buildAsync();
+    }
+
+    /**
+     * Карточка вместе с владельцем вещи: по нему без запроса к БД решается, какую
+     * карточку отдавать. Версия вещи, из которой собрана карточка, нужна для ETag.
+     * json заполняет сам кэш, если байты кэшируются.
+     */
+    public record ItemView(Long ownerId, ItemResponseDto item, Long version, byte[] json) {
+
+        public ItemView(Long ownerId, ItemResponseDto item, Long version) {
+            this(ownerId, item, version, null);
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.constants.DateTimeFormats;
 import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.item.ItemImportFormat;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.ConditionalGet;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * TODO Sprint add-controllers.
  */
 @Slf4j
+@Validated
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
 
     @PostMapping
     public ItemResponseDto create(
@@ -38,27 +55,62 @@ public class ItemController {
         return itemService.update(itemId, updateDto, ownerId);
     }
 
-    @GetMapping("/{itemId}")
-    public ItemResponseDto getItemById(
+    @PostMapping(path = "/import", consumes = TEXT_CSV_VALUE)
+    public ItemImportResultDto importCsv(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long ownerId,
+            InputStream body) {
+        log.info("POST /items/import (csv) - импорт вещей владельцем {}", ownerId);
+        return itemImportService.importItems(ownerId, ItemImportFormat.CSV, body);
+    }
+
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ItemImportResultDto importNdjson(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long ownerId,
+            InputStream body) {
+        log.info("POST /items/import (ndjson) - импорт вещей владельцем {}", ownerId);
+        return itemImportService.importItems(ownerId, ItemImportFormat.NDJSON, body);
+    }
+
+    // Карточка отдаётся готовыми байтами JSON из кэша, без повторной сериализации DTO
+    @GetMapping(path = "/{itemId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getItemById(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
-            @PathVariable Long itemId) {
+            @PathVariable Long itemId,
+            WebRequest request) {
         log.info("GET /items/{} - получение пользователем {}", itemId, userId);
-        return itemService.getByItemId(itemId, userId);
+        return ConditionalGet.respond(request,
+                () -> itemService.getItemETag(itemId, userId),
+                () -> itemService.getJsonByItemId(itemId, userId));
     }
 
     @GetMapping
-    public List<ItemResponseDto> getAllItemsByOwner(
-            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long ownerId) {
+    public ResponseEntity<List<ItemResponseDto>> getAllItemsByOwner(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long ownerId,
+            WebRequest request) {
         log.info("GET /items - все вещи владельца {}", ownerId);
-        return itemService.getAllItemsByOwnerId(ownerId);
+        return ConditionalGet.respond(request,
+                () -> itemService.getOwnerItemsETag(ownerId),
+                () -> itemService.getVersionedItemsByOwnerId(ownerId));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(pattern = DateTimeFormats.ISO_8601) LocalDateTime from,
+            @RequestParam @DateTimeFormat(pattern = DateTimeFormats.ISO_8601) LocalDateTime to) {
+        log.info("GET /items/{}/availability?from={}&to={} - пользователем {}", itemId, from, to, userId);
+        return itemService.getAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
     public List<ItemResponseDto> search(
             @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
-            @RequestParam String text) {
-        log.info("GET /items/search?text={} - поиск пользователем {}", text, userId);
-        return itemService.search(text, userId);
+            @RequestParam String text,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "10") @Positive Integer size) {
+        log.info("GET /items/search?text={}&from={}&size={} - поиск пользователем {}", text, from, size, userId);
+        return itemService.search(text, userId, from, size);
     }
 
     @DeleteMapping("/{itemId}")
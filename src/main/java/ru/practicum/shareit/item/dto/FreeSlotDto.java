@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.constants.DateTimeFormats;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotDto {
+
+    @JsonFormat(pattern = DateTimeFormats.ISO_8601)
+    private LocalDateTime start;
+
+    @JsonFormat(pattern = DateTimeFormats.ISO_8601)
+    private LocalDateTime end;
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportResultDto {
+    private long rows;
+    private long imported;
+    private long failed;
+
+    // Первые ошибки по строкам, не больше ItemImportServiceImpl.MAX_ERRORS
+    private List<RowError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        // Номер строки во входном файле, начиная с 1
+        private long line;
+        private String error;
+    }
+}
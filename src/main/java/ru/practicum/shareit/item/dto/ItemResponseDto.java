@@ -13,7 +13,7 @@ import java.util.List;
  * TODO Sprint add-controllers.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ItemResponseDto {
@@ -7,7 +7,9 @@ import ru.practicum.shareit.item.dto.ItemResponseDto;
 import ru.practicum.shareit.item.dto.ItemUpdateDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ItemMapper {
 
@@ -44,6 +46,23 @@ public class ItemMapper {
                 .build();
     }
 
+    // Карточка из кэша общая для всех читателей, а DTO изменяемые: наружу отдаётся копия
+    public static ItemResponseDto copy(ItemResponseDto item) {
+        return item.toBuilder()
+                .lastBooking(copy(item.getLastBooking()))
+                .nextBooking(copy(item.getNextBooking()))
+                .comments(item.getComments().stream()
+                        .map(comment -> new CommentDto(comment.getId(), comment.getText(),
+                                comment.getAuthorName(), comment.getCreated()))
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+    }
+
+    private static BookingShortDto copy(BookingShortDto booking) {
+        return booking == null
+                ? null
+                : new BookingShortDto(booking.getId(), booking.getBookerId(), booking.getStart(), booking.getEnd());
+    }
 
     public static void updateItemFromDto(ItemUpdateDto updateDto, Item existingItem) {
         if (updateDto.getName() != null) {
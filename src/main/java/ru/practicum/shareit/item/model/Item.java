@@ -17,8 +17,10 @@ import ru.practicum.shareit.user.model.User;
 @Entity
 @Table(name = "items")
 public class Item {
+    // Последовательность с pooled-оптимизатором, чтобы импорт вставлял вещи JDBC-батчами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 60)
@@ -38,4 +40,8 @@ public class Item {
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    // Растёт при изменении вещи и при добавлении комментария к ней (ItemRepository.incrementVersion)
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Вещь, добавленная в ответ на запрос, без загрузки сущности.
+ */
+public record ItemAnswer(Long id, String name, Long ownerId, Long requestId) {
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Версия вещи без загрузки сущности: по ней считается ETag.
+ */
+public record ItemVersion(Long id, Long ownerId, Long version) {
+}
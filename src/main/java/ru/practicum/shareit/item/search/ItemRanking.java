@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Релевантность вещи поисковому запросу. Совпадение в названии всегда важнее
+ * совпадения в описании; точное совпадение названия и совпадение с начала
+ * названия или слова повышают оценку, как и число вхождений. Число вхождений
+ * ограничено, чтобы длинное описание с повторами не обгоняло название.
+ * Строки передаются уже приведёнными к нижнему регистру.
+ */
+public final class ItemRanking {
+
+    private static final int NAME_MATCH = 1000;
+    private static final int NAME_EXACT = 500;
+    private static final int NAME_PREFIX = 200;
+    private static final int NAME_WORD_PREFIX = 100;
+    private static final int NAME_OCCURRENCE = 20;
+    private static final int DESCRIPTION_MATCH = 100;
+    private static final int DESCRIPTION_PREFIX = 20;
+    private static final int DESCRIPTION_WORD_PREFIX = 10;
+    private static final int DESCRIPTION_OCCURRENCE = 5;
+    private static final int MAX_OCCURRENCES = 5;
+
+    // Сначала большая оценка, при равенстве - меньший id
+    static final Comparator<Scored> BEST_FIRST = Comparator.comparingInt(Scored::score).reversed()
+            .thenComparingLong(Scored::id);
+
+    private ItemRanking() {
+    }
+
+    /**
+     * Лучшие limit вещей из уже отобранных запросом LIKE, по убыванию релевантности.
+     */
+    public static List<Item> top(String text, Collection<Item> items, int limit) {
+        String query = ItemSearchIndex.normalize(text);
+        TopK<Item> top = new TopK<>(limit);
+        for (Item item : items) {
+            int score = score(query, ItemSearchIndex.normalize(item.getName()),
+                    ItemSearchIndex.normalize(item.getDescription()));
+            if (score > 0) {
+                top.offer(new Scored(item.getId(), score), item);
+            }
+        }
+        return top.sorted();
+    }
+
+    static int score(String query, String name, String description) {
+        int score = 0;
+        int inName = occurrences(name, query);
+        if (inName > 0) {
+            score += NAME_MATCH + inName * NAME_OCCURRENCE;
+            if (name.equals(query)) {
+                score += NAME_EXACT;
+            } else if (name.startsWith(query)) {
+                score += NAME_PREFIX;
+            } else if (startsWord(name, query)) {
+                score += NAME_WORD_PREFIX;
+            }
+        }
+        int inDescription = occurrences(description, query);
+        if (inDescription > 0) {
+            score += DESCRIPTION_MATCH + inDescription * DESCRIPTION_OCCURRENCE;
+            if (description.startsWith(query)) {
+                score += DESCRIPTION_PREFIX;
+            } else if (startsWord(description, query)) {
+                score += DESCRIPTION_WORD_PREFIX;
+            }
+        }
+        return score;
+    }
+
+    // Число непересекающихся вхождений, не больше MAX_OCCURRENCES
+    private static int occurrences(String text, String query) {
+        int count = 0;
+        int position = text.indexOf(query);
+        while (position >= 0 && count < MAX_OCCURRENCES) {
+            count++;
+            position = text.indexOf(query, position + query.length());
+        }
+        return count;
+    }
+
+    private static boolean startsWord(String text, String query) {
+        int position = text.indexOf(query);
+        while (position > 0) {
+            if (!Character.isLetterOrDigit(text.charAt(position - 1))) {
+                return true;
+            }
+            position = text.indexOf(query, position + 1);
+        }
+        return position == 0;
+    }
+
+    record Scored(long id, int score) {
+    }
+
+    /**
+     * Ограниченная куча: в корне худший из отобранных, новый кандидат вытесняет
+     * его, только если лучше. Память и время растут с limit, а не с числом совпадений.
+     */
+    static final class TopK<T> {
+
+        private final int limit;
+        private final PriorityQueue<Entry<T>> heap;
+
+        TopK(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64) + 1,
+                    Comparator.<Entry<T>, Scored>comparing(Entry::scored, BEST_FIRST).reversed());
+        }
+
+        void offer(Scored scored, T value) {
+            if (limit <= 0) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.add(new Entry<>(scored, value));
+            } else if (BEST_FIRST.compare(scored, heap.peek().scored()) < 0) {
+                heap.poll();
+                heap.add(new Entry<>(scored, value));
+            }
+        }
+
+        List<T> sorted() {
+            List<Entry<T>> entries = new ArrayList<>(heap);
+            entries.sort(Comparator.comparing(Entry::scored, BEST_FIRST));
+            List<T> result = new ArrayList<>(entries.size());
+            entries.forEach(entry -> result.add(entry.value()));
+            return result;
+        }
+
+        private record Entry<T>(Scored scored, T value) {
+        }
+    }
+}
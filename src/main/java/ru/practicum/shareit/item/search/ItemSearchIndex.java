@@ -0,0 +1,214 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по триграммам названий и описаний доступных вещей.
+ * Заменяет полный просмотр таблицы items запросом LIKE '%text%':
+ * кандидаты берутся из пересечения списков триграмм запроса,
+ * затем проверяются на вхождение подстроки.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${shareit.search.index.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Индекс поиска вещей отключён, используется запрос к БД");
+            return;
+        }
+        List<Item> items = itemRepository.findAllByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            items.forEach(item -> put(IndexedItem.of(item)));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс поиска вещей построен: {} вещей, {} триграмм", documents.size(), postings.size());
+    }
+
+    /**
+     * Добавляет или обновляет вещь в индексе после коммита транзакции.
+     * Недоступные вещи из индекса удаляются.
+     */
+    public void index(Item item) {
+        IndexedItem document = IndexedItem.of(item);
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                drop(document.id());
+                if (available) {
+                    put(document);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long itemId) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                drop(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Возвращает id доступных вещей, в названии или описании которых
+     * встречается текст без учёта регистра.
+     */
+    public List<Long> search(String text) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM_SIZE
+                    ? documents.keySet()
+                    : candidates(query);
+            List<Long> result = new ArrayList<>();
+            for (Long id : candidates) {
+                if (documents.get(id).matches(query)) {
+                    result.add(id);
+                }
+            }
+            Collections.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает id не более limit самых релевантных доступных вещей по убыванию
+     * оценки ItemRanking. Оценка считается для каждого совпадения, но хранятся
+     * только limit лучших.
+     */
+    public List<Long> top(String text, int limit) {
+        String query = normalize(text);
+        ItemRanking.TopK<Long> top = new ItemRanking.TopK<>(limit);
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = query.length() < GRAM_SIZE
+                    ? documents.keySet()
+                    : candidates(query);
+            for (Long id : candidates) {
+                IndexedItem document = documents.get(id);
+                int score = ItemRanking.score(query, document.name(), document.description());
+                if (score > 0) {
+                    top.offer(new ItemRanking.Scored(id, score), id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return top.sorted();
+    }
+
+    private Collection<Long> candidates(String query) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.getFirst());
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void put(IndexedItem document) {
+        documents.put(document.id(), document);
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    private void drop(Long itemId) {
+        IndexedItem document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.grams()) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private record IndexedItem(Long id, String name, String description) {
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), normalize(item.getName()), normalize(item.getDescription()));
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemImportFormat;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт вещей из потока CSV или NDJSON. Тело запроса читается построчно и в память
+ * целиком не загружается: строки проверяются по ограничениям ItemCreateDto и копятся
+ * до chunk-size, после чего сохраняются одной транзакцией с JDBC-батчами.
+ * Ошибка в строке не прерывает импорт, а попадает в отчёт. Записи в CSV должны
+ * занимать одну строку: значения с переводом строки не поддерживаются.
+ * Вещь с requestId привязывается к запросу, как при создании через POST /items;
+ * строка с несуществующим запросом попадает в отчёт с ошибкой.
+ */
+@Slf4j
+@Service
+public class ItemImportServiceImpl implements ItemImportService {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public ItemImportServiceImpl(UserRepository userRepository,
+                                 ItemRequestRepository itemRequestRepository,
+                                 ItemSearchIndex itemSearchIndex,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${shareit.item.import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ItemImportResultDto importItems(Long ownerId, ItemImportFormat format, InputStream body) {
+        if (!userRepository.existsById(ownerId)) {
+            throw new NotFoundException("Пользователя с id " + ownerId + "нет");
+        }
+        Report report = new Report();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        ObjectReader csvReader = null;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ItemImportFormat.CSV && csvReader == null) {
+                    csvReader = csvReader(line);
+                    continue;
+                }
+                report.rows++;
+                try {
+                    ItemCreateDto dto = format == ItemImportFormat.CSV
+                            ? csvReader.readValue(line)
+                            : objectMapper.readValue(line, ItemCreateDto.class);
+                    String violations = validate(dto);
+                    if (violations != null) {
+                        report.fail(lineNumber, violations);
+                        continue;
+                    }
+                    chunk.add(new Row(lineNumber, dto));
+                } catch (JsonProcessingException e) {
+                    report.fail(lineNumber, "Некорректная строка: " + e.getOriginalMessage());
+                }
+                if (chunk.size() == chunkSize) {
+                    save(ownerId, chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            save(ownerId, chunk, report);
+        }
+
+        log.info("Импорт вещей владельца с id = {}: строк {}, импортировано {}, с ошибками {}",
+                ownerId, report.rows, report.imported, report.failed);
+        return ItemImportResultDto.builder()
+                .rows(report.rows)
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .build();
+    }
+
+    // Контекст персистентности очищается после каждой порции: если импорт вызван
+    // с EntityManager на весь запрос, он иначе накопил бы все импортированные вещи.
+    // Запросы, на которые отвечают вещи порции, читаются одним запросом по списку id
+    private void save(Long ownerId, List<Row> chunk, Report report) {
+        try {
+            List<Row> unknownRequests = transactionTemplate.execute(status -> {
+                User owner = userRepository.getReferenceById(ownerId);
+                Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(chunk.stream()
+                                .map(row -> row.dto().getRequestId())
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet())).stream()
+                        .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+                List<Row> unknown = new ArrayList<>();
+                List<Item> items = new ArrayList<>(chunk.size());
+                for (Row row : chunk) {
+                    Long requestId = row.dto().getRequestId();
+                    if (requestId != null && !requests.containsKey(requestId)) {
+                        unknown.add(row);
+                        continue;
+                    }
+                    Item item = ItemMapper.toItem(row.dto());
+                    item.setOwner(owner);
+                    item.setRequest(requestId != null ? requests.get(requestId) : null);
+                    entityManager.persist(item);
+                    items.add(item);
+                }
+                entityManager.flush();
+                items.forEach(itemSearchIndex::index);
+                entityManager.clear();
+                return unknown;
+            });
+            report.imported += chunk.size() - unknownRequests.size();
+            for (Row row : unknownRequests) {
+                report.fail(row.line(), "Запрос с id " + row.dto().getRequestId() + " не найден");
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Порция импорта со строки {} не сохранена: {}", chunk.getFirst().line(), e.getMessage());
+            entityManager.clear();
+            for (Row row : chunk) {
+                report.fail(row.line(), "Порция строк " + chunk.getFirst().line() + "-" + chunk.getLast().line()
+                        + " не сохранена: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private ObjectReader csvReader(String header) {
+        String[] columns;
+        try {
+            columns = csvMapper.readerFor(String[].class).readValue(header);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Некорректный заголовок CSV: " + e.getOriginalMessage());
+        }
+        CsvSchema.Builder schema = CsvSchema.builder();
+        for (String column : columns) {
+            schema.addColumn(column.trim());
+        }
+        return csvMapper.readerFor(ItemCreateDto.class).with(schema.build());
+    }
+
+    private String validate(ItemCreateDto dto) {
+        var violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record Row(long line, ItemCreateDto dto) {
+    }
+
+    private static class Report {
+        private long rows;
+        private long imported;
+        private long failed;
+        private final List<ItemImportResultDto.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String error) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new ItemImportResultDto.RowError(line, error));
+            }
+        }
+    }
+}
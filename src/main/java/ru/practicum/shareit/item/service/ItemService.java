@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.util.Versioned;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -11,7 +13,8 @@ public interface ItemService {
 
     ItemResponseDto getById(Long itemId);
 
-    List<ItemResponseDto> search(String text, Long userId);
+    // Страница from/size результатов поиска по убыванию релевантности, см. ItemRanking
+    List<ItemResponseDto> search(String text, Long userId, Integer from, Integer size);
 
     void delete(Long itemId);
 
@@ -19,5 +22,18 @@ public interface ItemService {
 
     ItemResponseDto getByItemId(Long itemId, Long userId);
 
+    Versioned<ItemResponseDto> getVersionedByItemId(Long itemId, Long userId);
+
+    // Карточка вещи в виде готового JSON, см. ItemViewCache
+    Versioned<byte[]> getJsonByItemId(Long itemId, Long userId);
+
+    String getItemETag(Long itemId, Long userId);
+
     List<ItemResponseDto> getAllItemsByOwnerId(Long ownerId);
+
+    List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    Versioned<List<ItemResponseDto>> getVersionedItemsByOwnerId(Long ownerId);
+
+    String getOwnerItemsETag(Long ownerId);
 }
@@ -1,30 +1,53 @@
 package ru.practicum.shareit.item.service;
 
-import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingShortDto;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingBounds;
+import ru.practicum.shareit.booking.storage.BookingHistory;
 import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.summary.BookingSummaryIndex;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.BulkheadGroup;
 import ru.practicum.shareit.exception.AccessDeniedException;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemVersion;
+import ru.practicum.shareit.item.search.ItemRanking;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.OffsetPageRequest;
+import ru.practicum.shareit.util.ParallelReads;
+import ru.practicum.shareit.util.Versioned;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,7 +58,14 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingHistory bookingHistory;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemViewCache itemViewCache;
+    private final BookingSummaryIndex bookingSummaryIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ParallelReads parallelReads;
+    private final ItemRequestRepository itemRequestRepository;
 
     @Override
     @Transactional
@@ -43,8 +73,15 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.toItem(itemCreateDto);
         User owner = getUserById(ownerId);
         item.setOwner(owner);
+        if (itemCreateDto.getRequestId() != null) {
+            Long requestId = itemCreateDto.getRequestId();
+            item.setRequest(itemRequestRepository.findById(requestId).orElseThrow(() ->
+                    new NotFoundException("Запрос с id " + requestId + " не найден")));
+        }
 
-        return ItemMapper.toResponseDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        return ItemMapper.toResponseDto(savedItem);
     }
 
     @Override
@@ -55,6 +92,13 @@ public class ItemServiceImpl implements ItemService {
         validateOwner(exiItem, ownerId);
 
         ItemMapper.updateItemFromDto(itemUpdateDto, exiItem);
+        try {
+            itemRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Вещь с id " + itemId + " изменена параллельным запросом, повторите попытку");
+        }
+        itemSearchIndex.index(exiItem);
+        itemViewCache.invalidate(itemId);
 
         return ItemMapper.toResponseDto(exiItem);
     }
@@ -65,13 +109,35 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toResponseDto(item);
     }
 
+    @Bulkhead(BulkheadGroup.SEARCH)
     @Override
-    public List<ItemResponseDto> search(String text, Long userId) {
+    public List<ItemResponseDto> search(String text, Long userId, Integer from, Integer size) {
         if (text == null || text.trim().isEmpty()) {
             return List.of();
         }
 
-        return itemRepository.search(text).stream()
+        // Ранжируются только from + size лучших, вещи загружаются только для страницы
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        List<Item> items;
+        if (itemSearchIndex.isReady()) {
+            List<Long> ids = itemSearchIndex.top(text, limit);
+            List<Long> page = ids.subList(Math.min(from, ids.size()), ids.size());
+            Map<Long, Item> byId = itemRepository.findAllById(page).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            items = page.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } else {
+            // Пока индекс строится, БД отдаёт только from + size лучших по той же оценке.
+            // Порядок внутри выборки уточняет ItemRanking: SQL не видит начала слова
+            // после знаков препинания
+            List<Item> ranked = ItemRanking.top(text,
+                    itemRepository.searchTop(text, OffsetPageRequest.of(0, limit)), limit);
+            items = ranked.subList(Math.min(from, ranked.size()), ranked.size());
+        }
+
+        return items.stream()
                 .map(ItemMapper::toResponseDto)
                 .toList();
     }
@@ -81,6 +147,9 @@ public class ItemServiceImpl implements ItemService {
     public void delete(Long itemId) {
         Item item = getItemById(itemId);
         itemRepository.delete(item);
+        itemSearchIndex.remove(itemId);
+        itemViewCache.invalidate(itemId);
+        bookingSummaryIndex.invalidateAll();
     }
 
     @Override
@@ -90,10 +159,10 @@ public class ItemServiceImpl implements ItemService {
         Item item = getItemById(itemId);
 
         LocalDateTime now = LocalDateTime.now();
-        boolean exists = bookingRepository.existsByBookerIdAndItemIdAndEndBefore(userId, itemId, now);
+        boolean exists = bookingHistory.existsCompletedBooking(userId, itemId, now);
 
         if (!exists) {
-            throw new ValidationException("Пользователь не брал эту вещь в аренду");
+            throw new BadRequestException("Пользователь не брал эту вещь в аренду");
         }
 
         Comment comment = Comment.builder()
@@ -103,43 +172,124 @@ public class ItemServiceImpl implements ItemService {
                 .build();
 
         Comment saveComment = commentRepository.save(comment);
+        itemRepository.incrementVersion(itemId);
+        itemViewCache.invalidate(itemId);
         return CommentMapper.toCommentDto(saveComment);
     }
 
+    // Чтения выполняются в собственных транзакциях ParallelReads, см. его описание
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ItemResponseDto getByItemId(Long itemId, Long userId) {
-        Item item = getItemById(itemId);
+        return getVersionedByItemId(itemId, userId).body();
+    }
 
-        List<CommentDto> comments = commentRepository.findByItemId(itemId)
-                .stream()
-                .map(CommentMapper::toCommentDto)
-                .toList();
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Versioned<ItemResponseDto> getVersionedByItemId(Long itemId, Long userId) {
+        Versioned<ItemViewCache.ItemView> view = getView(itemId, userId);
+        return new Versioned<>(ItemMapper.copy(view.body().item()), view.etag());
+    }
 
-        boolean isOwner = item.getOwner().getId().equals(userId);
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Versioned<byte[]> getJsonByItemId(Long itemId, Long userId) {
+        Versioned<ItemViewCache.ItemView> view = getView(itemId, userId);
+        return new Versioned<>(itemViewCache.toJson(view.body()), view.etag());
+    }
 
-        BookingShortDto lastBooking = null;
-        BookingShortDto nextBooking = null;
+    private Versioned<ItemViewCache.ItemView> getView(Long itemId, Long userId) {
+        ItemViewCache.ItemView view = itemViewCache.getPublicView(itemId, () -> loadPublicView(itemId));
 
-        if (isOwner) {
-            LocalDateTime now = LocalDateTime.now();
+        if (!view.ownerId().equals(userId)) {
+            return new Versioned<>(view, publicTag(itemId, view.version()));
+        }
+        ItemViewCache.ItemView ownerView = itemViewCache.getOwnerView(itemId, () -> loadOwnerView(view));
+        ItemResponseDto item = ownerView.item();
+        return new Versioned<>(ownerView, ownerTag(itemId, ownerView.version(),
+                item.getLastBooking() == null ? null : item.getLastBooking().getEnd(),
+                item.getNextBooking() == null ? null : item.getNextBooking().getStart()));
+    }
 
-            lastBooking = bookingRepository
-                    .findLastBookingForItem(itemId, now)
-                    .map(BookingMapper::toBookingShortDto)
-                    .orElse(null);
+    // Карточка владельца зависит ещё и от времени: тег включает границы
+    // последнего и следующего бронирований на текущий момент
+    @Override
+    public String getItemETag(Long itemId, Long userId) {
+        return itemRepository.findVersionById(itemId)
+                .map(item -> {
+                    if (!item.ownerId().equals(userId)) {
+                        return publicTag(itemId, item.version());
+                    }
+                    BookingBounds bounds = bookingHistory
+                            .findApprovedBounds(List.of(itemId), LocalDateTime.now())
+                            .get(itemId);
+                    return bounds == null
+                            ? ownerTag(itemId, item.version(), null, null)
+                            : ownerTag(itemId, item.version(), bounds.lastEnd(), bounds.nextStart());
+                })
+                .orElse(null);
+    }
 
-            nextBooking = bookingRepository
-                    .findNextBookingForItem(itemId, now)
-                    .map(BookingMapper::toBookingShortDto)
-                    .orElse(null);
-        }
+    private static String publicTag(Long itemId, Long version) {
+        return ETags.of("item", itemId, version);
+    }
+
+    private static String ownerTag(Long itemId, Long version, LocalDateTime lastEnd, LocalDateTime nextStart) {
+        return ETags.of("item", itemId, version, lastEnd, nextStart);
+    }
 
-        return ItemMapper.toResponseDto(item, lastBooking, nextBooking, comments);
+    private ItemViewCache.ItemView loadPublicView(Long itemId) {
+        return parallelReads.both(
+                () -> {
+                    Item item = getItemById(itemId);
+                    return new ItemViewCache.ItemView(
+                            item.getOwner().getId(), ItemMapper.toResponseDto(item), item.getVersion());
+                },
+                () -> commentRepository.findByItemId(itemId)
+                        .stream()
+                        .map(CommentMapper::toCommentDto)
+                        .toList(),
+                (item, comments) -> new ItemViewCache.ItemView(
+                        item.ownerId(),
+                        item.item().toBuilder().comments(comments).build(),
+                        item.version()));
+    }
+
+    private ItemViewCache.ItemView loadOwnerView(ItemViewCache.ItemView view) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemResponseDto publicView = view.item();
+
+        return parallelReads.both(
+                () -> bookingHistory
+                        .findLastBookingForItem(publicView.getId(), now)
+                        .map(BookingMapper::toBookingShortDto)
+                        .orElse(null),
+                () -> bookingRepository
+                        .findNextBookingForItem(publicView.getId(), now)
+                        .map(BookingMapper::toBookingShortDto)
+                        .orElse(null),
+                (lastBooking, nextBooking) -> new ItemViewCache.ItemView(
+                        view.ownerId(),
+                        publicView.toBuilder()
+                                .lastBooking(lastBooking)
+                                .nextBooking(nextBooking)
+                                .build(),
+                        view.version()));
     }
 
+    @Bulkhead(BulkheadGroup.LISTINGS)
     @Override
     public List<ItemResponseDto> getAllItemsByOwnerId(Long ownerId) {
+        return getVersionedItemsByOwnerId(ownerId).body();
+    }
+
+    @Bulkhead(BulkheadGroup.LISTINGS)
+    @Override
+    public Versioned<List<ItemResponseDto>> getVersionedItemsByOwnerId(Long ownerId) {
         List<Item> items = itemRepository.findAllByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return new Versioned<>(List.of(), ownerItemsTag(ownerId, List.of()));
+        }
         List<Long> itemIds = items.stream()
                 .map(Item::getId)
                 .collect(Collectors.toList());
@@ -152,47 +302,78 @@ public class ItemServiceImpl implements ItemService {
                         Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())
                 ));
 
-        Map<Long, List<Booking>> bookingsByItemId = bookingRepository
-                .findByItem_IdIn(itemIds)
-                .stream()
-                .collect(Collectors.groupingBy(
-                        booking -> booking.getItem().getId(),
-                        Collectors.toList()
-                ));
-
         LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingShortDto> lastByItemId = new HashMap<>();
+        Map<Long, BookingShortDto> nextByItemId = new HashMap<>();
 
-        return items.stream()
-                .map(item -> enrichItemWithData(
+        for (Booking booking : bookingHistory.findLastAndNextForItems(itemIds, now)) {
+            Map<Long, BookingShortDto> target = booking.getEnd().isBefore(now) ? lastByItemId : nextByItemId;
+            target.putIfAbsent(booking.getItem().getId(), BookingMapper.toBookingShortDto(booking));
+        }
+
+        List<ItemResponseDto> body = items.stream()
+                .map(item -> ItemMapper.toResponseDto(
                         item,
-                        ownerId,
-                        now,
-                        bookingsByItemId.getOrDefault(item.getId(), List.of()),
+                        lastByItemId.get(item.getId()),
+                        nextByItemId.get(item.getId()),
                         commentsByItemId.getOrDefault(item.getId(), List.of())
                 ))
                 .collect(Collectors.toList());
+        List<Object> parts = new ArrayList<>();
+        items.stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .forEach(item -> {
+                    BookingShortDto last = lastByItemId.get(item.getId());
+                    BookingShortDto next = nextByItemId.get(item.getId());
+                    Collections.addAll(parts, item.getId(), item.getVersion(),
+                            last == null ? null : last.getEnd(),
+                            next == null ? null : next.getStart());
+                });
+        return new Versioned<>(body, ownerItemsTag(ownerId, parts));
     }
 
-    private ItemResponseDto enrichItemWithData(
-            Item item,
-            Long ownerId,
-            LocalDateTime now,
-            List<Booking> itemBookings,
-            List<CommentDto> itemComments) {
-
-        BookingShortDto lastBooking = itemBookings.stream()
-                .filter(b -> b.getStart().isBefore(now))
-                .max(Comparator.comparing(Booking::getStart))
-                .map(BookingMapper::toBookingShortDto)
-                .orElse(null);
+    // Тег списка меняется вместе с любой вещью, её комментариями и последним
+    // или следующим бронированием
+    @Override
+    public String getOwnerItemsETag(Long ownerId) {
+        List<ItemVersion> items = itemRepository.findVersionsByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return ownerItemsTag(ownerId, List.of());
+        }
+        Map<Long, BookingBounds> bounds = bookingHistory.findApprovedBounds(
+                items.stream().map(ItemVersion::id).toList(), LocalDateTime.now());
+        List<Object> parts = new ArrayList<>();
+        for (ItemVersion item : items) {
+            BookingBounds bound = bounds.get(item.id());
+            Collections.addAll(parts, item.id(), item.version(),
+                    bound == null ? null : bound.lastEnd(),
+                    bound == null ? null : bound.nextStart());
+        }
+        return ownerItemsTag(ownerId, parts);
+    }
 
-        BookingShortDto nextBooking = itemBookings.stream()
-                .filter(b -> b.getStart().isAfter(now))
-                .min(Comparator.comparing(Booking::getStart))
-                .map(BookingMapper::toBookingShortDto)
-                .orElse(null);
+    private static String ownerItemsTag(Long ownerId, List<Object> parts) {
+        return ETags.digest("items." + ownerId, parts);
+    }
 
-        return ItemMapper.toResponseDto(item, lastBooking, nextBooking, itemComments);
+    // Окна считаются по расписанию BookingIntervalIndex: оно загружается одним
+    // запросом интервалов без чтения сущностей и дальше поддерживается в памяти
+    @Override
+    public List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("Конец периода должен быть позже его начала");
+        }
+        Item item = getItemById(itemId);
+        // Бронировать можно только с текущего момента
+        LocalDateTime start = from.isAfter(LocalDateTime.now()) ? from : LocalDateTime.now();
+        if (!item.getAvailable() || !to.isAfter(start)) {
+            return List.of();
+        }
+        List<FreeSlotDto> slots = bookingIntervalIndex.freeIntervals(itemId, start, to).stream()
+                .map(interval -> new FreeSlotDto(interval.start(), interval.end()))
+                .toList();
+        log.info("Свободные окна вещи с id = {} с {} по {}: {}", itemId, start, to, slots.size());
+        return slots;
     }
 
     private Item getItemById(Long itemId) {
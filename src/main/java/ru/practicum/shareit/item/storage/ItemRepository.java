@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemAnswer;
+import ru.practicum.shareit.item.model.ItemVersion;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
@@ -15,11 +21,58 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerId(Long ownerId);
 
+    List<Item> findAllByAvailableTrue();
+
     @Query("SELECT i FROM Item i WHERE " +
             "i.available = true AND " +
             "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
             "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')))")
     List<Item> search(@Param("text") String text);
 
+    // Оценка ItemRanking в SQL для запасного поиска: слагаемые те же, вхождения
+    // считаются через REPLACE. Началом слова считается только позиция после пробела
+    String NAME_OCCURRENCES = "LEAST(5, (LENGTH(LOWER(i.name)) - "
+            + "LENGTH(REPLACE(LOWER(i.name), LOWER(:text), ''))) / LENGTH(:text))";
+    String DESCRIPTION_OCCURRENCES = "LEAST(5, (LENGTH(LOWER(COALESCE(i.description, ''))) - "
+            + "LENGTH(REPLACE(LOWER(COALESCE(i.description, '')), LOWER(:text), ''))) / LENGTH(:text))";
+    String SEARCH_SCORE = "(CASE WHEN LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) THEN "
+            + "1000 + 20 * " + NAME_OCCURRENCES + " + CASE "
+            + "WHEN LOWER(i.name) = LOWER(:text) THEN 500 "
+            + "WHEN LOWER(i.name) LIKE LOWER(CONCAT(:text, '%')) THEN 200 "
+            + "WHEN LOWER(i.name) LIKE LOWER(CONCAT('% ', :text, '%')) THEN 100 "
+            + "ELSE 0 END ELSE 0 END"
+            + " + CASE WHEN LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%')) THEN "
+            + "100 + 5 * " + DESCRIPTION_OCCURRENCES + " + CASE "
+            + "WHEN LOWER(i.description) LIKE LOWER(CONCAT(:text, '%')) THEN 20 "
+            + "WHEN LOWER(i.description) LIKE LOWER(CONCAT('% ', :text, '%')) THEN 10 "
+            + "ELSE 0 END ELSE 0 END)";
+
+    // Лучшие по оценке совпадения, страница ограничивает выборку from + size строками
+    @Query("SELECT i FROM Item i WHERE " +
+            "i.available = true AND " +
+            "(LOWER(i.name) LIKE LOWER(CONCAT('%', :text, '%')) OR " +
+            "LOWER(i.description) LIKE LOWER(CONCAT('%', :text, '%'))) " +
+            "ORDER BY " + SEARCH_SCORE + " DESC, i.id")
+    List<Item> searchTop(@Param("text") String text, Pageable page);
+
+    // Ответы на страницу запросов одним запросом, группируются в ItemRequestServiceImpl
+    @Query("SELECT new ru.practicum.shareit.item.model.ItemAnswer(i.id, i.name, i.owner.id, i.request.id) " +
+            "FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<ItemAnswer> findAnswersByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.ItemVersion(i.id, i.owner.id, i.version) " +
+            "FROM Item i WHERE i.id = :itemId")
+    Optional<ItemVersion> findVersionById(@Param("itemId") Long itemId);
+
+    @Query("SELECT new ru.practicum.shareit.item.model.ItemVersion(i.id, i.owner.id, i.version) " +
+            "FROM Item i WHERE i.owner.id = :ownerId ORDER BY i.id")
+    List<ItemVersion> findVersionsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Комментарии входят в карточку вещи, поэтому их добавление меняет и версию вещи.
+    // UPDATE вместо OPTIMISTIC_FORCE_INCREMENT: параллельные комментарии не конфликтуют
+    @Modifying
+    @Query("UPDATE Item i SET i.version = i.version + 1 WHERE i.id = :itemId")
+    int incrementVersion(@Param("itemId") Long itemId);
+
 
 }
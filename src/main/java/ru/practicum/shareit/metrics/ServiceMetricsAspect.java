@@ -0,0 +1,83 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.util.Arrays;
+
+/**
+ * Время выполнения каждого метода сервисов: таймер shareit.service с гистограммой,
+ * теги service, method, state и outcome. Для методов списков бронирований state -
+ * запрошенное BookingState, так видно, какой из запросов по состояниям медленный.
+ * outcome - success или простое имя класса исключения.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String TIMER = "shareit.service";
+
+    private static final String STATE_PARAMETER = "state";
+    private static final String NONE = "NONE";
+    private static final String INVALID = "INVALID";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(ru.practicum.shareit..service..*) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .tag("service", serviceName(signature))
+                    .tag("method", signature.getName())
+                    .tag("state", state(signature, joinPoint.getArgs()))
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    // Имя интерфейса сервиса, а не реализации: BookingService вместо BookingServiceImpl
+    private static String serviceName(MethodSignature signature) {
+        Class<?> type = signature.getDeclaringType();
+        return Arrays.stream(type.getInterfaces())
+                .filter(contract -> contract.getSimpleName().endsWith("Service"))
+                .findFirst()
+                .orElse(type)
+                .getSimpleName();
+    }
+
+    // Значение state проверяется по BookingState, чтобы произвольная строка
+    // из запроса не порождала новые временные ряды
+    private static String state(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        for (int i = 0; names != null && i < names.length; i++) {
+            if (STATE_PARAMETER.equals(names[i]) && args[i] instanceof BookingState state) {
+                return state.name();
+            }
+            if (STATE_PARAMETER.equals(names[i]) && args[i] instanceof String state) {
+                try {
+                    return BookingState.valueOf(state.toUpperCase()).name();
+                } catch (IllegalArgumentException e) {
+                    return INVALID;
+                }
+            }
+        }
+        return NONE;
+    }
+}
@@ -1,12 +1,56 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import java.util.List;
+
+@Slf4j
+@Validated
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
 public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    public ItemRequestDto create(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @Valid @RequestBody ItemRequestCreateDto createDto) {
+        log.info("POST /requests - создание запроса пользователем {}", userId);
+        return itemRequestService.create(userId, createDto);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwnRequests(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId) {
+        log.info("GET /requests - запросы пользователя {}", userId);
+        return itemRequestService.getOwnRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> getOtherRequests(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "10") @Positive Integer size) {
+        log.info("GET /requests/all?from={}&size={} - запросы других пользователей для {}", from, size, userId);
+        return itemRequestService.getOtherRequests(userId, from, size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto getById(
+            @RequestHeader(HttpHeadersConstants.USER_ID_HEADER) Long userId,
+            @PathVariable Long requestId) {
+        log.info("GET /requests/{} - получение пользователем {}", requestId, userId);
+        return itemRequestService.getById(userId, requestId);
+    }
 }
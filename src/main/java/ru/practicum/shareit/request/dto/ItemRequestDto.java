@@ -1,7 +1,28 @@
 package ru.practicum.shareit.request.dto;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.constants.DateTimeFormats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequestDto {
+    private Long id;
+    private String description;
+
+    @JsonFormat(pattern = DateTimeFormats.ISO_8601)
+    private LocalDateTime created;
+
+    // Вещи, добавленные владельцами в ответ на запрос
+    @Builder.Default
+    private List<ItemAnswerDto> items = new ArrayList<>();
 }
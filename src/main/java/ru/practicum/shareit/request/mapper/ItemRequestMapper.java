@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request.mapper;
+
+import ru.practicum.shareit.item.model.ItemAnswer;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemRequestMapper {
+
+    public static ItemRequest toItemRequest(ItemRequestCreateDto createDto, User requester, LocalDateTime created) {
+        return ItemRequest.builder()
+                .description(createDto.getDescription())
+                .requester(requester)
+                .created(created)
+                .build();
+    }
+
+    public static ItemRequestDto toDto(ItemRequest request, List<ItemAnswerDto> items) {
+        return ItemRequestDto.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items)
+                .build();
+    }
+
+    public static ItemAnswerDto toAnswerDto(ItemAnswer answer) {
+        return ItemAnswerDto.builder()
+                .id(answer.id())
+                .name(answer.name())
+                .ownerId(answer.ownerId())
+                .build();
+    }
+}
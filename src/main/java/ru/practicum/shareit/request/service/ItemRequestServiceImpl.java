@@ -0,0 +1,92 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.bulkhead.Bulkhead;
+import ru.practicum.shareit.bulkhead.BulkheadGroup;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.ItemAnswer;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public ItemRequestDto create(Long userId, ItemRequestCreateDto createDto) {
+        User requester = userRepository.findById(userId).orElseThrow(() ->
+                new NotFoundException("Пользователь с id " + userId + " не найден"));
+        ItemRequest request = itemRequestRepository.save(
+                ItemRequestMapper.toItemRequest(createDto, requester, LocalDateTime.now()));
+        log.info("Создан запрос вещи с Id = {} пользователем {}", request.getId(), userId);
+        return ItemRequestMapper.toDto(request, List.of());
+    }
+
+    @Override
+    public List<ItemRequestDto> getOwnRequests(Long userId) {
+        validateUser(userId);
+        return withAnswers(itemRequestRepository.findByRequester(userId));
+    }
+
+    @Bulkhead(BulkheadGroup.LISTINGS)
+    @Override
+    public List<ItemRequestDto> getOtherRequests(Long userId, Integer from, Integer size) {
+        validateUser(userId);
+        return withAnswers(itemRequestRepository.findOthers(userId, OffsetPageRequest.of(from, size)));
+    }
+
+    @Override
+    public ItemRequestDto getById(Long userId, Long requestId) {
+        validateUser(userId);
+        ItemRequest request = itemRequestRepository.findById(requestId).orElseThrow(() ->
+                new NotFoundException("Запрос с id " + requestId + " не найден"));
+        return withAnswers(List.of(request)).getFirst();
+    }
+
+    // Ответы на все запросы страницы загружаются одним запросом request_id IN (...)
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = requests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+        Map<Long, List<ItemAnswerDto>> answers = new HashMap<>();
+        for (ItemAnswer answer : itemRepository.findAnswersByRequestIds(ids)) {
+            answers.computeIfAbsent(answer.requestId(), id -> new ArrayList<>())
+                    .add(ItemRequestMapper.toAnswerDto(answer));
+        }
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toDto(request, answers.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+
+    private void validateUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id " + userId + " не найден");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.request.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.ItemRequest;
+
+import java.util.List;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    // ix_item_requests_requester
+    @Query("SELECT r FROM ItemRequest r WHERE r.requester.id = :requesterId ORDER BY r.created DESC")
+    List<ItemRequest> findByRequester(@Param("requesterId") Long requesterId);
+
+    // ix_item_requests_created: строки читаются в порядке индекса до заполнения страницы
+    @Query("SELECT r FROM ItemRequest r WHERE r.requester.id <> :userId ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findOthers(@Param("userId") Long userId, Pageable pageable);
+}
@@ -3,11 +3,14 @@ package ru.practicum.shareit.user.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserResponseDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.ConditionalGet;
 
 import java.util.List;
 
@@ -22,9 +25,11 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping("/{userId}")
-    public UserResponseDto getUser(@PathVariable("userId") Long userId) {
+    public ResponseEntity<UserResponseDto> getUser(@PathVariable("userId") Long userId, WebRequest request) {
         log.info("GET /users/{} - получение пользователя", userId);
-        return userService.getById(userId);
+        return ConditionalGet.respond(request,
+                () -> userService.getUserETag(userId),
+                () -> userService.getVersionedById(userId));
     }
 
     @GetMapping
@@ -28,4 +28,7 @@ public class User {
     @NotBlank(message = "Email не может быть пустым")
     @Email(message = "Некорректный формат email")
     private String email;
+
+    @Version
+    private Long version;
 }
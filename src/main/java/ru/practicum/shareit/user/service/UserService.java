@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.service;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserResponseDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.util.Versioned;
 
 import java.util.List;
 
@@ -13,6 +14,10 @@ public interface UserService {
 
     UserResponseDto getById(Long userId);
 
+    Versioned<UserResponseDto> getVersionedById(Long userId);
+
+    String getUserETag(Long userId);
+
     List<UserResponseDto> getAll();
 
     void delete(Long userId);
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.summary.BookingSummaryIndex;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.dto.UserCreateDto;
@@ -11,6 +13,8 @@ import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.util.ETags;
+import ru.practicum.shareit.util.Versioned;
 
 import java.util.List;
 
@@ -19,6 +23,7 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final BookingSummaryIndex bookingSummaryIndex;
 
     @Override
     @Transactional
@@ -44,6 +49,11 @@ public class UserServiceImpl implements UserService {
         if (userUpdates.getName() != null) {
             existingUser.setName(userUpdates.getName());
         }
+        try {
+            userRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflictException("Пользователь с id " + userId + " изменён параллельным запросом, повторите попытку");
+        }
 
         return UserMapper.toResponseDto(existingUser);
     }
@@ -55,6 +65,24 @@ public class UserServiceImpl implements UserService {
         return UserMapper.toResponseDto(user);
     }
 
+    @Override
+    public Versioned<UserResponseDto> getVersionedById(Long userId) {
+        User user = getUserById(userId);
+
+        return new Versioned<>(UserMapper.toResponseDto(user), userTag(userId, user.getVersion()));
+    }
+
+    @Override
+    public String getUserETag(Long userId) {
+        return userRepository.findVersionById(userId)
+                .map(version -> userTag(userId, version))
+                .orElse(null);
+    }
+
+    private static String userTag(Long userId, Long version) {
+        return ETags.of("user", userId, version);
+    }
+
     @Override
     public List<UserResponseDto> getAll() {
 
@@ -69,6 +97,7 @@ public class UserServiceImpl implements UserService {
         User user = getUserById(userId);
 
         userRepository.delete(user);
+        bookingSummaryIndex.invalidateAll();
     }
 
     private User getUserById(Long userId) {
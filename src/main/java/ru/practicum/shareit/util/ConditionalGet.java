@@ -0,0 +1,35 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * GET с If-None-Match. Текущий тег ресурса читается отдельным дешёвым запросом
+ * версий; если он совпал с тегом клиента, ответ 304 отдаётся без сборки DTO.
+ * Иначе ответ собирается и помечается тегом своих версий, а не прочитанным
+ * заранее: между двумя чтениями ресурс мог измениться.
+ */
+public final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * @param currentTag тег ресурса или null, если его нет или он недоступен
+     *                   пользователю - тогда ошибку вернёт loader
+     */
+    public static <T> ResponseEntity<T> respond(WebRequest request,
+                                                Supplier<String> currentTag,
+                                                Supplier<Versioned<T>> loader) {
+        String etag = currentTag.get();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        Versioned<T> response = loader.get();
+        return ResponseEntity.ok()
+                .eTag(response.etag())
+                .body(response.body());
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Сильные ETag из версий сущностей. Тег собирается из вида ресурса и частей через
+ * точку, отсутствующая часть (например, нет следующего бронирования) пишется как "-".
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(String kind, Object... parts) {
+        return quote(join(kind, Arrays.asList(parts)));
+    }
+
+    /**
+     * Тег коллекции: части сворачиваются в MD5, чтобы длина заголовка
+     * не зависела от размера списка.
+     */
+    public static String digest(String kind, List<?> parts) {
+        return quote(kind + "." + DigestUtils.md5DigestAsHex(join(kind, parts).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String join(String kind, List<?> parts) {
+        StringBuilder tag = new StringBuilder(kind);
+        for (Object part : parts) {
+            tag.append('.').append(part == null ? "-" : part);
+        }
+        return tag.toString();
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
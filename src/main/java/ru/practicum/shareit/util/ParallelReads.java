@@ -0,0 +1,59 @@
+package ru.practicum.shareit.util;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет два независимых чтения из БД. В режиме виртуальных потоков
+ * (spring.threads.virtual.enabled=true) чтения идут параллельно, каждое в своём
+ * виртуальном потоке и в своей read-only транзакции со своим соединением.
+ * Иначе оба чтения выполняются последовательно в одной read-only транзакции.
+ * Вызывающий код не должен держать собственную транзакцию: иначе запрос занимает
+ * соединение и ждёт ещё два, и при маленьком пуле запросы блокируют друг друга.
+ * Сущности за пределы транзакции не выходят - чтения должны возвращать DTO.
+ */
+@Component
+public class ParallelReads {
+
+    private final TransactionTemplate readOnly;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean parallel;
+
+    public ParallelReads(PlatformTransactionManager transactionManager,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean parallel) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.parallel = parallel;
+    }
+
+    public <A, B, R> R both(Supplier<A> first, Supplier<B> second, BiFunction<A, B, R> combine) {
+        if (!parallel) {
+            return readOnly.execute(status -> combine.apply(first.get(), second.get()));
+        }
+        CompletableFuture<A> a = CompletableFuture.supplyAsync(() -> readOnly.execute(status -> first.get()), executor);
+        CompletableFuture<B> b = CompletableFuture.supplyAsync(() -> readOnly.execute(status -> second.get()), executor);
+        try {
+            return combine.apply(a.join(), b.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.util;
+
+/**
+ * Ответ вместе с ETag, посчитанным по тем же версиям, из которых он собран.
+ */
+public record Versioned<T>(T body, String etag) {
+}
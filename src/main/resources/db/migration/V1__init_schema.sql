@@ -16,8 +16,10 @@ CREATE TABLE IF NOT EXISTS item_requests (
         REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE SEQUENCE IF NOT EXISTS items_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('items_seq') NOT NULL,
     name VARCHAR(60) NOT NULL,
     description TEXT,
     available BOOLEAN DEFAULT TRUE,
@@ -30,8 +32,10 @@ CREATE TABLE IF NOT EXISTS items (
         REFERENCES item_requests(id) ON DELETE SET NULL
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL,
@@ -0,0 +1,27 @@
+-- Индексы под запросы репозиториев. Каждый индекс проверяется EXPLAIN-тестом
+-- QueryPlanTest; поиск по подстроке (ItemRepository.search) обслуживает ItemSearchIndex.
+-- PostgreSQL не создаёт индексы для внешних ключей сам, поэтому owner_id и item_id
+-- индексируются явно.
+
+-- Списки бронирований арендатора: booker_id = ? ORDER BY start_date DESC, id DESC,
+-- страницы по курсору (start_date, id); фильтры по статусу и end_date - по тем же строкам
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+-- Бронирования вещи по началу: списки владельца (через ix_items_owner),
+-- ближайшее будущее бронирование
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
+-- Последнее завершённое бронирование и активные интервалы вещи: item_id, status, end_date
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_end ON bookings (item_id, status, end_date);
+
+-- Брал ли пользователь вещь в аренду (право оставить комментарий)
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_item_end ON bookings (booker_id, item_id, end_date);
+
+-- Вещи владельца и подзапросы по владельцу в бронированиях
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, id);
+
+-- Комментарии вещи и списка вещей
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
+
+-- Запросы пользователя, новые первыми
+CREATE INDEX IF NOT EXISTS ix_item_requests_requester ON item_requests (requester_id, created DESC);
@@ -0,0 +1,30 @@
+-- Завершённые бронирования старше shareit.booking.archive.after-days переносятся сюда
+-- задачей BookingArchiveJob; в bookings остаются текущие, будущие и недавние.
+-- Идентификаторы сохраняются, поэтому своей последовательности у таблицы нет.
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id),
+    CONSTRAINT fk_booking_archive_item FOREIGN KEY (item_id)
+        REFERENCES items(id) ON DELETE CASCADE,
+    CONSTRAINT fk_booking_archive_booker FOREIGN KEY (booker_id)
+        REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Те же списки, что и по bookings: по арендатору и по вещам владельца
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_start ON bookings_archive (item_id, start_date DESC, id DESC);
+
+-- Последнее бронирование вещи, если в bookings завершённых уже нет
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_item_status_end ON bookings_archive (item_id, status, end_date);
+
+-- Право оставить комментарий
+CREATE INDEX IF NOT EXISTS ix_bookings_archive_booker_item_end ON bookings_archive (booker_id, item_id, end_date);
+
+-- Кандидаты на перенос: end_date < порога
+CREATE INDEX IF NOT EXISTS ix_bookings_end ON bookings (end_date);
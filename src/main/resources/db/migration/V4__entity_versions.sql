@@ -0,0 +1,7 @@
+-- Версии строк для ETag и оптимистичной блокировки (@Version).
+-- Версия вещи растёт и при добавлении комментария к ней.
+-- В архив версия бронирования переносится вместе со строкой.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings_archive ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
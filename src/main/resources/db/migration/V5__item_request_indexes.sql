@@ -0,0 +1,7 @@
+-- Запросы вещей. Свои запросы пользователя уже обслуживает ix_item_requests_requester.
+
+-- Ответы на страницу запросов: items.request_id IN (...)
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
+
+-- Чужие запросы, новые первыми: обход в порядке индекса до конца страницы
+CREATE INDEX IF NOT EXISTS ix_item_requests_created ON item_requests (created DESC, id DESC);
@@ -0,0 +1,21 @@
+-- Outbox событий жизненного цикла бронирований. Строка пишется в транзакции,
+-- изменившей бронирование, и после коммита доставляется подписчикам через
+-- BookingEventDispatcher. delivered_at ставится после успешной доставки; строки
+-- без него доставляются повторно, в том числе после падения приложения.
+-- Внешних ключей нет: события переживают удаление бронирования.
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_events (
+    id BIGINT DEFAULT nextval('booking_events_seq') NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    booking_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    delivered_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_booking_event PRIMARY KEY (id)
+);
+
+-- Недоставленные события по порядку (delivered_at IS NULL) и очистка доставленных
+CREATE INDEX IF NOT EXISTS ix_booking_events_delivered ON booking_events (delivered_at, id);
@@ -0,0 +1,11 @@
+-- Аренды плановых задач: при нескольких экземплярах приложения задачу выполняет тот,
+-- кто первым продлил locked_until в строке задачи. Упавший экземпляр не держит
+-- аренду дольше locked_until.
+CREATE TABLE IF NOT EXISTS job_locks (
+    name VARCHAR(64) NOT NULL,
+    locked_until TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    locked_by VARCHAR(255),
+    CONSTRAINT pk_job_lock PRIMARY KEY (name)
+);
+
+INSERT INTO job_locks (name, locked_until) VALUES ('booking-archive', TIMESTAMP '1970-01-01 00:00:00');
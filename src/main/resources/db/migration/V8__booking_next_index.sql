@@ -0,0 +1,3 @@
+-- Ближайшее будущее подтверждённое бронирование вещи: item_id, status = 'APPROVED',
+-- start_date > ? по возрастанию; ix_bookings_item_start статус не содержит
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
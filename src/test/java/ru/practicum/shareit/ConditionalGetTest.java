@@ -0,0 +1,155 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemUpdateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET вещи, бронирования, пользователя и списка вещей владельца отдают ETag
+ * и отвечают 304 на совпавший If-None-Match, не собирая ответ. Тег меняется
+ * вместе с сущностью, её комментариями и бронированиями.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+    private Long strangerId;
+    private Long itemId;
+    private Long pastBookingId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("ETag Owner", "etag.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("ETag Booker", "etag.booker@example.com")).getId();
+        strangerId = userService.create(new UserCreateDto("ETag Stranger", "etag.stranger@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Байдарка", "Двухместная", true, null), ownerId).getId();
+        pastBookingId = bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, now.minusDays(3), now.minusDays(2))).getId();
+        bookingService.updateBookingStatus(ownerId, pastBookingId, true);
+    }
+
+    @Test
+    void userIsNotModifiedUntilUpdated() throws Exception {
+        String etag = etag(get("/users/{id}", strangerId));
+
+        mockMvc.perform(get("/users/{id}", strangerId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        userService.update(strangerId, new UserUpdateDto("ETag Stranger 2", null));
+
+        assertThat(etag(get("/users/{id}", strangerId).header(HttpHeaders.IF_NONE_MATCH, etag))).isNotEqualTo(etag);
+    }
+
+    @Test
+    void itemTagFollowsItemAndComments() throws Exception {
+        String etag = etag(asUser(get("/items/{id}", itemId), bookerId));
+        notModified(asUser(get("/items/{id}", itemId), bookerId), etag);
+
+        itemService.addComment(itemId, new CommentCreateDto("Не протекает"), bookerId);
+        String commented = etag(asUser(get("/items/{id}", itemId), bookerId).header(HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(commented).isNotEqualTo(etag);
+
+        itemService.update(itemId, new ItemUpdateDto(null, "Двухместная, с вёслами", null), ownerId);
+        assertThat(etag(asUser(get("/items/{id}", itemId), bookerId))).isNotEqualTo(commented);
+    }
+
+    @Test
+    void ownerViewsFollowBookings() throws Exception {
+        String view = etag(asUser(get("/items/{id}", itemId), ownerId));
+        String list = etag(asUser(get("/items"), ownerId));
+        assertThat(view).isNotEqualTo(etag(asUser(get("/items/{id}", itemId), bookerId)));
+        notModified(asUser(get("/items/{id}", itemId), ownerId), view);
+        notModified(asUser(get("/items"), ownerId), list);
+
+        Long next = bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, now.plusDays(40), now.plusDays(41))).getId();
+        // Ожидающее подтверждения бронирование в карточку владельца не попадает
+        notModified(asUser(get("/items"), ownerId), list);
+
+        bookingService.updateBookingStatus(ownerId, next, true);
+        assertThat(etag(asUser(get("/items/{id}", itemId), ownerId))).isNotEqualTo(view);
+        assertThat(etag(asUser(get("/items"), ownerId))).isNotEqualTo(list);
+    }
+
+    @Test
+    void bookingIsNotModifiedWithoutAssemblingResponse() throws Exception {
+        String etag = etag(asUser(get("/bookings/{id}", pastBookingId), bookerId));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        notModified(asUser(get("/bookings/{id}", pastBookingId), bookerId), etag);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void strangerGetsNoTagForForeignBooking() throws Exception {
+        String etag = etag(asUser(get("/bookings/{id}", pastBookingId), bookerId));
+
+        mockMvc.perform(asUser(get("/bookings/{id}", pastBookingId), strangerId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isForbidden());
+    }
+
+    private String etag(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+        return etag;
+    }
+
+    private void notModified(MockHttpServletRequestBuilder request, String etag) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private static MockHttpServletRequestBuilder asUser(MockHttpServletRequestBuilder request, Long userId) {
+        return request.header(HttpHeadersConstants.USER_ID_HEADER, userId);
+    }
+}
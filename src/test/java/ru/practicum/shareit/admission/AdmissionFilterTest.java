@@ -0,0 +1,85 @@
+package ru.practicum.shareit.admission;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Фильтр допуска: пользователь, исчерпавший бюджет группы, получает 429 с Retry-After,
+ * не мешая другим; при занятых местах для одновременных запросов - 503 без ожидания.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admissiondb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.admission.budgets.search.capacity=2",
+        "shareit.admission.budgets.search.refill-per-second=0.01",
+        "shareit.admission.max-concurrent=1"})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    private Long greedyId;
+    private Long politeId;
+
+    @BeforeAll
+    void seed() {
+        greedyId = userService.create(new UserCreateDto("Greedy", "admission.greedy@example.com")).getId();
+        politeId = userService.create(new UserCreateDto("Polite", "admission.polite@example.com")).getId();
+    }
+
+    @Test
+    void searchBudgetIsPerUser() throws Exception {
+        search(greedyId).andExpect(status().isOk());
+        search(greedyId).andExpect(status().isOk());
+        search(greedyId)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+
+        search(politeId).andExpect(status().isOk());
+        mockMvc.perform(get("/items").header(HttpHeadersConstants.USER_ID_HEADER, greedyId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shedsWhenAllSlotsAreBusy() throws Exception {
+        assertThat(concurrencyLimiter.tryAcquire()).isTrue();
+        try {
+            mockMvc.perform(get("/users/{id}", politeId))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            concurrencyLimiter.release();
+        }
+
+        mockMvc.perform(get("/users/{id}", politeId)).andExpect(status().isOk());
+        assertThat(concurrencyLimiter.inFlight()).isZero();
+    }
+
+    private ResultActions search(Long userId) throws Exception {
+        return mockMvc.perform(get("/items/search")
+                .param("text", "дрель")
+                .header(HttpHeadersConstants.USER_ID_HEADER, userId));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private UserRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getBudgets().put(EndpointGroup.WRITE, budget(3, 2));
+        properties.getBudgets().put(EndpointGroup.READ, budget(100, 100));
+        properties.setMaxUsers(2);
+        limiter = new UserRateLimiter(properties, clock::get);
+    }
+
+    @Test
+    void burstThenRefillAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isZero();
+        }
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isZero();
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isPositive();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isZero();
+        }
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isPositive();
+    }
+
+    @Test
+    void budgetsAreSeparatePerUserAndGroup() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire(1L, EndpointGroup.WRITE);
+        }
+
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.WRITE)).isPositive();
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.READ)).isZero();
+        assertThat(limiter.tryAcquire(2L, EndpointGroup.WRITE)).isZero();
+        // Для поиска бюджет не задан
+        assertThat(limiter.tryAcquire(1L, EndpointGroup.SEARCH)).isZero();
+    }
+
+    @Test
+    void concurrentRequestsNeverExceedBurst() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    int admitted = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire(7L, EndpointGroup.READ) == 0) {
+                            admitted++;
+                        }
+                    }
+                    return admitted;
+                });
+            }
+            int admitted = 0;
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                admitted += future.get();
+            }
+            assertThat(admitted).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static AdmissionProperties.Budget budget(int capacity, double refillPerSecond) {
+        AdmissionProperties.Budget budget = new AdmissionProperties.Budget();
+        budget.setCapacity(capacity);
+        budget.setRefillPerSecond(refillPerSecond);
+        return budget;
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.archive.BookingArchiveJob;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.JobLockRepository;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Перенос старых бронирований в архив не меняет ответов сервисов: история, выгрузка,
+ * право на комментарий и последнее бронирование вещи видят архивные строки,
+ * а ожидающие подтверждения бронирования остаются в основной таблице. Плановый перенос
+ * пропускается, пока аренду в job_locks держит другой экземпляр.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingArchiveTest {
+
+    private static final String ARCHIVE_LOCK = "booking-archive";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingArchiveRepository bookingArchiveRepository;
+
+    @Autowired
+    private BookingArchiveJob bookingArchiveJob;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long oldItemId;
+    private Long oldApproved;
+    private Long oldRejected;
+    private Long oldWaiting;
+    private Long recent;
+    private Long future;
+    private long moved;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Archive Owner", "archive.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Archive Booker", "archive.booker@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Лодка", "Надувная", true, null), ownerId).getId();
+        oldItemId = itemService.create(new ItemCreateDto("Мангал", "Складной", true, null), ownerId).getId();
+
+        oldApproved = book(oldItemId, now.minusDays(200), true);
+        oldRejected = book(itemId, now.minusDays(150), false);
+        oldWaiting = book(itemId, now.minusDays(120), null);
+        recent = book(itemId, now.minusDays(10), true);
+        future = book(itemId, now.plusDays(10), true);
+
+        moved = bookingArchiveJob.archive(now.minusDays(90));
+    }
+
+    @Test
+    void movesOnlyOldDecidedBookings() {
+        assertThat(moved).isGreaterThanOrEqualTo(2);
+        assertThat(bookingArchiveRepository.existsById(oldApproved)).isTrue();
+        assertThat(bookingArchiveRepository.existsById(oldRejected)).isTrue();
+        assertThat(bookingRepository.existsById(oldApproved)).isFalse();
+        assertThat(bookingRepository.existsById(oldRejected)).isFalse();
+        assertThat(bookingRepository.existsById(oldWaiting)).isTrue();
+        assertThat(bookingRepository.existsById(recent)).isTrue();
+    }
+
+    @Test
+    void historyStatesIncludeArchive() {
+        assertThat(ids("ALL", 10)).containsExactly(future, recent, oldWaiting, oldRejected, oldApproved);
+        assertThat(ids("PAST", 10)).containsExactly(recent, oldWaiting, oldRejected, oldApproved);
+        assertThat(ids("REJECTED", 10)).containsExactly(oldRejected);
+        assertThat(ids("WAITING", 10)).containsExactly(oldWaiting);
+        assertThat(ids("FUTURE", 10)).containsExactly(future);
+        assertThat(bookingService.getOwnerBookings(ownerId, "PAST", 0, 10, null).getBookings())
+                .extracting(BookingResponseDto::getId)
+                .containsExactly(recent, oldWaiting, oldRejected, oldApproved);
+    }
+
+    @Test
+    void cursorPagesMergeBothTables() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingPageDto page = bookingService.getUserBooking(bookerId, "ALL", 0, 2, cursor);
+            page.getBookings().forEach(booking -> ids.add(booking.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(ids).containsExactly(future, recent, oldWaiting, oldRejected, oldApproved);
+    }
+
+    @Test
+    void exportMergesBothTablesInOrder() {
+        List<Long> ids = new ArrayList<>();
+
+        bookingService.streamUserBookings(bookerId, BookingState.ALL, booking -> ids.add(booking.getId()));
+
+        assertThat(ids).containsExactly(future, recent, oldWaiting, oldRejected, oldApproved);
+    }
+
+    @Test
+    void archivedBookingIsReadableById() {
+        assertThat(bookingService.getBookingById(ownerId, oldApproved).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    }
+
+    @Test
+    void archivedBookingCountsForCommentsAndLastBooking() {
+        itemService.addComment(oldItemId, new CommentCreateDto("Отличный мангал"), bookerId);
+
+        ItemResponseDto view = itemService.getByItemId(oldItemId, ownerId);
+
+        assertThat(view.getLastBooking().getId()).isEqualTo(oldApproved);
+        assertThat(itemService.getAllItemsByOwnerId(ownerId))
+                .filteredOn(item -> item.getId().equals(oldItemId))
+                .singleElement()
+                .satisfies(item -> assertThat(item.getLastBooking().getId()).isEqualTo(oldApproved));
+    }
+
+    @Test
+    void scheduledRunIsSkippedWhileAnotherInstanceHoldsLease() {
+        Long otherBooker = userService.create(new UserCreateDto("Archive Other", "archive.other@example.com")).getId();
+        Long old = bookingService.createBooking(otherBooker,
+                new BookingCreateDto(itemId, now.minusDays(400), now.minusDays(399))).getId();
+        bookingService.updateBookingStatus(ownerId, old, true);
+        Integer acquired = transactionTemplate.execute(status -> jobLockRepository.acquire(ARCHIVE_LOCK, "other",
+                LocalDateTime.now(), LocalDateTime.now().plusHours(1)));
+        assertThat(acquired).isEqualTo(1);
+
+        assertThat(bookingArchiveJob.run()).isFalse();
+        assertThat(bookingRepository.existsById(old)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status ->
+                jobLockRepository.release(ARCHIVE_LOCK, "other", LocalDateTime.now()));
+        assertThat(bookingArchiveJob.run()).isTrue();
+        assertThat(bookingArchiveRepository.existsById(old)).isTrue();
+        // Аренда снята после переноса, следующий запуск её снова получит
+        assertThat(bookingArchiveJob.run()).isTrue();
+    }
+
+    private Long book(Long item, LocalDateTime start, Boolean approved) {
+        Long id = bookingService.createBooking(bookerId, new BookingCreateDto(item, start, start.plusDays(1))).getId();
+        if (approved != null) {
+            bookingService.updateBookingStatus(ownerId, id, approved);
+        }
+        return id;
+    }
+
+    private List<Long> ids(String state, int size) {
+        return bookingService.getUserBooking(bookerId, state, 0, size, null).getBookings().stream()
+                .map(BookingResponseDto::getId)
+                .toList();
+    }
+}
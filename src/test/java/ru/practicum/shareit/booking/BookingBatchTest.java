@@ -0,0 +1,238 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.constants.DateTimeFormats;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Пакет бронирований: результат по каждому элементу, в том числе для не прошедших
+ * проверку полей, отклонённые не сохраняются, принятые вставляются батчами. Пакетная смена статуса затрагивает только
+ * ожидающие бронирования вещей владельца.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingBatchTest {
+
+    private static final int BATCH = 40;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+    private Long otherItemId;
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        ownerId = userService.create(new UserCreateDto("Batch Owner", "batch.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Batch Booker", "batch.booker@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Байдарка", "Двухместная", true, null), ownerId).getId();
+        otherItemId = itemService.create(new ItemCreateDto("Весло", "Запасное", true, null), ownerId).getId();
+    }
+
+    @Test
+    void reportsEveryEntryAndStoresOnlyAccepted() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long before = bookingRepository.count();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(bookerId, List.of(
+                new BookingCreateDto(itemId, start, start.plusDays(1)),
+                new BookingCreateDto(itemId, start.plusHours(12), start.plusDays(2)),
+                new BookingCreateDto(-1L, start, start.plusDays(1)),
+                new BookingCreateDto(otherItemId, start.plusDays(1), start)));
+
+        assertThat(results).extracting(BookingBatchResultDto::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BookingBatchResultDto::getStatus).containsExactly(201, 409, 404, 400);
+        assertThat(results.getFirst().getBooking().getId()).isNotNull();
+        assertThat(results.subList(1, 4)).allSatisfy(result -> {
+            assertThat(result.getBooking()).isNull();
+            assertThat(result.getError()).isNotBlank();
+        });
+        assertThat(bookingRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void invalidEntriesAreReportedWithoutRejectingBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(60);
+        long before = bookingRepository.count();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(bookerId, Arrays.asList(
+                new BookingCreateDto(itemId, start, start.plusDays(1)),
+                new BookingCreateDto(null, start, start.plusDays(1)),
+                new BookingCreateDto(itemId, start.minusDays(100), start.plusDays(1)),
+                new BookingCreateDto(itemId, null, null),
+                null));
+
+        assertThat(results).extracting(BookingBatchResultDto::getStatus).containsExactly(201, 400, 400, 400, 400);
+        assertThat(results.get(1).getError()).isEqualTo("Id вещи не может быть пустым");
+        assertThat(results.get(3).getError()).isEqualTo("Дата начала бронирования не может быть пустой; "
+                + "Дата окончания бронирования не может быть пустой");
+        assertThat(bookingRepository.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void invalidEntryDoesNotRejectBatchRequest() throws Exception {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern(DateTimeFormats.ISO_8601);
+        LocalDateTime start = LocalDateTime.now().plusDays(70);
+        String body = """
+                [{"itemId": %d, "start": "%s", "end": "%s"},
+                 {"itemId": %d, "start": "%s", "end": "%s"}]
+                """.formatted(itemId, format.format(start), format.format(start.plusDays(1)),
+                itemId, format.format(start.minusDays(140)), format.format(start));
+
+        // MockMvc поверх общего контекста: отдельный контекст с @AutoConfigureMockMvc
+        // создал бы вещи мимо поискового индекса остальных тестов
+        MockMvcBuilders.webAppContextSetup(webApplicationContext).build()
+                .perform(post("/bookings/batch")
+                        .header(HttpHeadersConstants.USER_ID_HEADER, bookerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("Дата начала должна быть в будущем или настоящем"));
+    }
+
+    @Test
+    void endEqualToStartIsRejectedBeforeInsert() {
+        LocalDateTime start = LocalDateTime.now().plusDays(50).truncatedTo(ChronoUnit.MICROS);
+        long before = bookingRepository.count();
+
+        assertThatThrownBy(() -> bookingService.createBooking(bookerId, new BookingCreateDto(itemId, start, start)))
+                .isInstanceOf(BadRequestException.class);
+        List<BookingBatchResultDto> results = bookingService.createBookings(bookerId, List.of(
+                new BookingCreateDto(itemId, start, start),
+                new BookingCreateDto(itemId, start, start.plusNanos(1))));
+
+        assertThat(results).extracting(BookingBatchResultDto::getStatus).containsExactly(400, 400);
+        assertThat(bookingRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void ownerCannotBookOwnItemsInBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(100);
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(ownerId, List.of(
+                new BookingCreateDto(itemId, start, start.plusDays(1))));
+
+        assertThat(results.getFirst().getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void bulkStatusChangesOnlyOwnWaitingBookings() {
+        LocalDateTime start = LocalDateTime.now().plusDays(300);
+        List<Long> ids = bookingService.createBookings(bookerId, List.of(
+                        new BookingCreateDto(itemId, start, start.plusDays(1)),
+                        new BookingCreateDto(itemId, start.plusDays(2), start.plusDays(3)),
+                        new BookingCreateDto(otherItemId, start, start.plusDays(1))))
+                .stream()
+                .map(result -> result.getBooking().getId())
+                .toList();
+        bookingService.updateBookingStatus(ownerId, ids.get(2), false);
+
+        BookingStatusBatchDto result = bookingService.updateBookingStatuses(ownerId,
+                List.of(ids.get(0), ids.get(1), ids.get(2), -1L), true);
+
+        assertThat(result.getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(result.getUpdated()).containsExactly(ids.get(0), ids.get(1));
+        assertThat(result.getSkipped()).containsExactly(ids.get(2), -1L);
+        assertThat(bookingRepository.findAllById(ids)).extracting(Booking::getStatus)
+                .containsExactlyInAnyOrder(BookingStatus.APPROVED, BookingStatus.APPROVED, BookingStatus.REJECTED);
+
+        assertThat(bookingService.updateBookingStatuses(bookerId, ids, false).getUpdated()).isEmpty();
+        assertThat(bookingService.updateBookingStatuses(ownerId, ids, false).getUpdated()).isEmpty();
+    }
+
+    @Test
+    void acceptedBookingsAreInsertedInJdbcBatches() {
+        LocalDateTime start = LocalDateTime.now().plusDays(200);
+        List<BookingCreateDto> dtos = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            dtos.add(new BookingCreateDto(otherItemId, start.plusDays(i), start.plusDays(i).plusHours(12)));
+        }
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(bookerId, dtos);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(201));
+        // Пользователь, вещи, расписание вещи, последовательность и по одному
+        // подготовленному INSERT на батч - намного меньше числа бронирований
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+
+    @Test
+    void bookingsOfManyItemsAreInsertedInJdbcBatches() {
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < BATCH / 2; i++) {
+            itemIds.add(itemService.create(new ItemCreateDto("Спальник " + i, "Летний", true, null), ownerId).getId());
+        }
+        LocalDateTime start = LocalDateTime.now().plusDays(400);
+        List<BookingCreateDto> dtos = new ArrayList<>();
+        for (int i = 0; i < BATCH; i++) {
+            dtos.add(new BookingCreateDto(itemIds.get(i % itemIds.size()),
+                    start.plusDays(i), start.plusDays(i).plusHours(12)));
+        }
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(bookerId, dtos);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getStatus()).isEqualTo(201));
+        // Расписания всех вещей читаются одним запросом до вставок, и чтение расписания
+        // не выталкивает накопленные вставки по одной
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+    }
+}
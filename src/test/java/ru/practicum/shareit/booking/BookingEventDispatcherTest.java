@@ -0,0 +1,181 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.event.BookingEvent;
+import ru.practicum.shareit.booking.event.BookingEventDispatcher;
+import ru.practicum.shareit.booking.event.BookingEventEntry;
+import ru.practicum.shareit.booking.event.BookingEventListener;
+import ru.practicum.shareit.booking.event.BookingEventType;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingEventRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * События бронирований доходят до подписчиков после коммита и отмечаются в outbox
+ * доставленными; откат не порождает событий, а недоставленные события
+ * отправляются повторно из outbox.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:eventsdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.booking.events.delivery.enabled=true"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingEventDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingEventRepository bookingEventRepository;
+
+    @Autowired
+    private BookingEventDispatcher bookingEventDispatcher;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Events Owner", "events.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Events Booker", "events.booker@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Самокат", "Электрический", true, null), ownerId).getId();
+    }
+
+    @Test
+    void deliversCreateAndApproveAfterCommit() {
+        Long bookingId = book(10);
+        bookingService.updateBookingStatus(ownerId, bookingId, true);
+
+        await(() -> types(bookingId).size() == 2);
+        assertThat(types(bookingId)).containsExactly(BookingEventType.CREATED, BookingEventType.APPROVED);
+        BookingEvent created = listener.events.stream()
+                .filter(event -> event.bookingId().equals(bookingId))
+                .findFirst()
+                .orElseThrow();
+        assertThat(created.itemId()).isEqualTo(itemId);
+        assertThat(created.bookerId()).isEqualTo(bookerId);
+        assertThat(created.ownerId()).isEqualTo(ownerId);
+        await(() -> entries(bookingId).stream().allMatch(entry -> entry.getDeliveredAt() != null));
+    }
+
+    @Test
+    void rolledBackBookingPublishesNothing() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long bookingId = transaction.execute(status -> {
+            Long id = book(20);
+            status.setRollbackOnly();
+            return id;
+        });
+        Long committed = book(30);
+
+        await(() -> !types(committed).isEmpty());
+        assertThat(types(bookingId)).isEmpty();
+        assertThat(entries(bookingId)).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsRedeliveredFromOutbox() {
+        listener.failNext.set(true);
+        Long bookingId = book(40);
+
+        await(() -> !listener.failNext.get());
+        assertThat(entries(bookingId)).singleElement()
+                .satisfies(entry -> assertThat(entry.getDeliveredAt()).isNull());
+
+        bookingEventDispatcher.redeliver(LocalDateTime.now());
+
+        await(() -> types(bookingId).contains(BookingEventType.CREATED));
+        await(() -> entries(bookingId).getFirst().getDeliveredAt() != null);
+    }
+
+    private Long book(int days) {
+        return bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, now.plusDays(days), now.plusDays(days + 1))).getId();
+    }
+
+    private List<BookingEventType> types(Long bookingId) {
+        return listener.events.stream()
+                .filter(event -> event.bookingId().equals(bookingId))
+                .map(BookingEvent::type)
+                .toList();
+    }
+
+    private List<BookingEventEntry> entries(Long bookingId) {
+        return bookingEventRepository.findAll().stream()
+                .filter(entry -> entry.getBookingId().equals(bookingId))
+                .toList();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("условие не выполнилось за %d мс", TIMEOUT_MILLIS)
+                    .isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static class RecordingListener implements BookingEventListener {
+
+        final Queue<BookingEvent> events = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Override
+        public void onEvents(List<BookingEvent> batch) {
+            if (failNext.compareAndSet(true, false)) {
+                throw new IllegalStateException("Подписчик недоступен");
+            }
+            events.addAll(batch);
+        }
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+}
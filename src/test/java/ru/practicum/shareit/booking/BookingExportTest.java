@@ -0,0 +1,212 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.bulkhead.BulkheadGroup;
+import ru.practicum.shareit.bulkhead.Bulkheads;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выгрузка бронирований в NDJSON: по строке на бронирование, а неизвестный пользователь,
+ * чужая выгрузка владельца и неизвестное состояние отклоняются до начала потока
+ * с кодом ошибки, а не пустым ответом 200. Состояние отбирает запрос к БД: выгрузка
+ * содержит те же бронирования, что и список, и читает только их. Занятая квота выгрузок тоже отклоняется
+ * до начала потока, а законченная выгрузка освобождает своё место.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Export Owner", "export.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Export Booker", "export.booker@example.com")).getId();
+        Long itemId = itemService.create(new ItemCreateDto("Фонарь", "Налобный", true, null), ownerId).getId();
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(bookerId,
+                    new BookingCreateDto(itemId, now.plusDays(2L * i + 1), now.plusDays(2L * i + 2)));
+        }
+    }
+
+    @Test
+    void streamsOneLinePerBooking() throws Exception {
+        assertThat(export(ndjson(get("/bookings"), bookerId)).split("\n")).hasSize(3);
+        assertThat(export(ndjson(get("/bookings/owner").param("state", "waiting"), ownerId)).split("\n"))
+                .hasSize(3);
+    }
+
+    @Test
+    void unknownUserIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(ndjson(get("/bookings"), Long.MAX_VALUE))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void ownerExportRequiresItemsBeforeStreaming() throws Exception {
+        mockMvc.perform(ndjson(get("/bookings/owner"), bookerId))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void unknownStateIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(ndjson(get("/bookings").param("state", "SOMETIMES"), bookerId))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportReadsOnlyBookingsInRequestedState() throws Exception {
+        Long owner = userService.create(new UserCreateDto("State Owner", "state.owner@example.com")).getId();
+        Long booker = userService.create(new UserCreateDto("State Booker", "state.booker@example.com")).getId();
+        Long itemId = itemService.create(new ItemCreateDto("Шатёр", "Трёхместный", true, null), owner).getId();
+        for (int i = 0; i < 4; i++) {
+            bookingService.createBooking(booker,
+                    new BookingCreateDto(itemId, now.plusDays(2L * i + 1), now.plusDays(2L * i + 2)));
+        }
+        List<Long> waiting = ids(bookingService.getOwnerBookings(owner, "WAITING", 0, null, null).getBookings());
+        bookingService.updateBookingStatus(owner, waiting.get(0), true);
+        bookingService.updateBookingStatus(owner, waiting.get(1), false);
+        save(itemId, booker, now.minusDays(5), now.minusDays(4));
+        save(itemId, booker, now.minusDays(1), now.plusHours(1));
+
+        for (BookingState state : BookingState.values()) {
+            List<Long> expected = ids(bookingService.getOwnerBookings(owner, state.name(), 0, null, null)
+                    .getBookings());
+            assertThat(exportedIds(ndjson(get("/bookings/owner").param("state", state.name()), owner)))
+                    .as(state.name()).isEqualTo(expected);
+            assertThat(exportedIds(ndjson(get("/bookings").param("state", state.name()), booker)))
+                    .as(state.name()).isEqualTo(expected);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        assertThat(exportedIds(ndjson(get("/bookings/owner").param("state", "WAITING"), owner))).hasSize(2);
+        assertThat(statistics.getEntityStatistics(Booking.class.getName()).getLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fullExportGroupIsRejectedBeforeStreaming() throws Exception {
+        try (Bulkheads.Permit held = bulkheads.enter(BulkheadGroup.EXPORT)) {
+            mockMvc.perform(ndjson(get("/bookings"), bookerId))
+                    .andExpect(request().asyncNotStarted())
+                    .andExpect(status().isServiceUnavailable());
+        }
+
+        // Квота выгрузок - одно место без ожидания: вторая выгрузка подряд проходит,
+        // только если первая своё место вернула
+        assertThat(export(ndjson(get("/bookings"), bookerId)).split("\n")).hasSize(3);
+        assertThat(export(ndjson(get("/bookings/owner"), ownerId)).split("\n")).hasSize(3);
+    }
+
+    private String export(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private List<Long> exportedIds(MockHttpServletRequestBuilder request) throws Exception {
+        return Arrays.stream(export(request).split("\n"))
+                .filter(line -> !line.isBlank())
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BookingResponseDto.class).getId();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static List<Long> ids(List<BookingResponseDto> bookings) {
+        return bookings.stream().map(BookingResponseDto::getId).toList();
+    }
+
+    private void save(Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(itemId).orElseThrow())
+                .booker(userRepository.findById(bookerId).orElseThrow())
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build());
+    }
+
+    private static MockHttpServletRequestBuilder ndjson(MockHttpServletRequestBuilder request, Long userId) {
+        return request.accept(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeadersConstants.USER_ID_HEADER, userId);
+    }
+}
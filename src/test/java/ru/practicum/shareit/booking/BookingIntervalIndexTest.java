@@ -0,0 +1,227 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.interval.BookingInterval;
+import ru.practicum.shareit.booking.interval.BookingIntervalIndex;
+import ru.practicum.shareit.booking.interval.FreeInterval;
+import ru.practicum.shareit.booking.interval.ItemBookingInterval;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.exception.ConflictException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+
+    private static final int THREADS = 16;
+
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS);
+    private final AtomicLong ids = new AtomicLong();
+
+    private BookingIntervalIndex index;
+
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findActiveIntervals(anyLong(), any(), any())).thenReturn(List.of());
+        index = new BookingIntervalIndex(bookingRepository, 1000, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void onlyOneOfConcurrentOverlappingBookingsWins() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            LocalDateTime start = base.plusHours(thread % 3);
+            try {
+                index.reserve(1L, new BookingInterval(ids.incrementAndGet(), start, start.plusHours(4)));
+                reserved.incrementAndGet();
+            } catch (ConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(THREADS - 1);
+    }
+
+    @Test
+    void acceptedBookingsNeverOverlapUnderContention() throws Exception {
+        int items = 8;
+        int attempts = 500;
+        Map<Long, Queue<BookingInterval>> accepted = new ConcurrentHashMap<>();
+        Map<Long, Queue<BookingInterval>> rejected = new ConcurrentHashMap<>();
+
+        runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < attempts; i++) {
+                long itemId = random.nextLong(items);
+                LocalDateTime start = base.plusHours(random.nextInt(24 * 60));
+                BookingInterval interval = new BookingInterval(ids.incrementAndGet(), start,
+                        start.plusHours(1 + random.nextInt(48)));
+                try {
+                    index.reserve(itemId, interval);
+                    accepted.computeIfAbsent(itemId, id -> new ConcurrentLinkedQueue<>()).add(interval);
+                } catch (ConflictException e) {
+                    rejected.computeIfAbsent(itemId, id -> new ConcurrentLinkedQueue<>()).add(interval);
+                }
+            }
+        });
+
+        accepted.forEach((itemId, intervals) -> {
+            List<BookingInterval> sorted = new ArrayList<>(intervals);
+            sorted.sort(BookingInterval.BY_START);
+            for (int i = 1; i < sorted.size(); i++) {
+                BookingInterval previous = sorted.get(i - 1);
+                assertThat(previous.overlaps(sorted.get(i).start(), sorted.get(i).end()))
+                        .as("item %d: %s / %s", itemId, previous, sorted.get(i))
+                        .isFalse();
+            }
+        });
+        rejected.forEach((itemId, intervals) -> intervals.forEach(interval ->
+                assertThat(accepted.get(itemId))
+                        .as("item %d: %s", itemId, interval)
+                        .anyMatch(other -> other.overlaps(interval.start(), interval.end()))));
+    }
+
+    @Test
+    void freeIntervalsAreGapsBetweenBookingsInsideWindow() {
+        index.reserve(1L, interval(1, 3));
+        index.reserve(1L, interval(3, 5));
+        index.reserve(1L, interval(8, 10));
+
+        assertThat(index.freeIntervals(1L, base, base.plusHours(12))).containsExactly(
+                new FreeInterval(base, base.plusHours(1)),
+                new FreeInterval(base.plusHours(5), base.plusHours(8)),
+                new FreeInterval(base.plusHours(10), base.plusHours(12)));
+        assertThat(index.freeIntervals(1L, base.plusHours(2), base.plusHours(9))).containsExactly(
+                new FreeInterval(base.plusHours(5), base.plusHours(8)));
+        assertThat(index.freeIntervals(1L, base.plusHours(3), base.plusHours(5))).isEmpty();
+        assertThat(index.freeIntervals(2L, base, base.plusHours(1))).containsExactly(
+                new FreeInterval(base, base.plusHours(1)));
+    }
+
+    @Test
+    void savedBookingMatchesItsIntervalLoadedFromDatabase() {
+        LocalDateTime start = base.withNano(123_456_789);
+        BookingInterval saved = new BookingInterval(ids.incrementAndGet(), start, start.plusHours(2));
+        // В БД время хранится с точностью до микросекунд
+        when(bookingRepository.findActiveIntervals(anyLong(), any(), any())).thenReturn(List.of(
+                new BookingInterval(saved.id(), start.withNano(123_456_000), start.plusHours(2).withNano(123_456_000))));
+
+        index.reserve(3L, saved);
+
+        assertThat(index.freeIntervals(3L, start.minusHours(1), start.plusHours(3))).hasSize(2);
+        index.release(3L, saved);
+        assertThat(index.freeIntervals(3L, start.minusHours(1), start.plusHours(3))).hasSize(1);
+    }
+
+    @Test
+    void uncommittedReservationSurvivesEvictionUntilRollback() {
+        // Нулевой срок жизни: расписание перечитывается из БД при каждом обращении
+        index = new BookingIntervalIndex(bookingRepository, 1000, Duration.ZERO, new SimpleMeterRegistry());
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(1L, interval(1, 3));
+
+        assertThatThrownBy(() -> index.reserve(1L, interval(2, 4))).isInstanceOf(ConflictException.class);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        index.reserve(1L, interval(2, 4));
+    }
+
+    @Test
+    void overlappingLegacyBookingsAreAllChecked() {
+        // Строки, записанные до проверки пересечений: [1, 10] и вложенное в него [2, 3]
+        BookingInterval wide = interval(1, 10);
+        when(bookingRepository.findActiveIntervals(anyLong(), any(), any())).thenReturn(List.of(wide, interval(2, 3)));
+
+        assertThatThrownBy(() -> index.reserve(1L, interval(5, 6))).isInstanceOf(ConflictException.class);
+        assertThat(index.freeIntervals(1L, base.plusHours(4), base.plusHours(12))).containsExactly(
+                new FreeInterval(base.plusHours(10), base.plusHours(12)));
+        index.reserve(1L, interval(11, 12));
+
+        index.release(1L, wide);
+        index.reserve(1L, interval(5, 6));
+        assertThatThrownBy(() -> index.reserve(1L, interval(2, 4))).isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void preloadReadsTimelinesOfAllItemsInOneQuery() {
+        BookingInterval existing = interval(1, 3);
+        when(bookingRepository.findActiveIntervalsForItems(any(), any(), any()))
+                .thenReturn(List.of(new ItemBookingInterval(1L, existing)));
+
+        index.preload(List.of(1L, 2L, 3L));
+
+        assertThatThrownBy(() -> index.reserve(1L, interval(2, 4))).isInstanceOf(ConflictException.class);
+        index.reserve(2L, interval(2, 4));
+        index.reserve(3L, interval(2, 4));
+        index.preload(List.of(1L, 2L));
+        verify(bookingRepository, times(1)).findActiveIntervalsForItems(any(), any(), any());
+        verify(bookingRepository, never()).findActiveIntervals(anyLong(), any(), any());
+    }
+
+    private BookingInterval interval(int fromHour, int toHour) {
+        return new BookingInterval(ids.incrementAndGet(), base.plusHours(fromHour), base.plusHours(toHour));
+    }
+
+    private void runConcurrently(int threads, IntConsumerTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerTask {
+        void run(int thread);
+    }
+}
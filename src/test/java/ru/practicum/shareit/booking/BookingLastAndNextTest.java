@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Последнее и следующее бронирования вещей одним запросом: учитываются только
+ * подтверждённые, последнее закончилось до текущего момента, следующее начинается
+ * после него, текущее не попадает ни в одну сторону. При равных датах на вещь
+ * и сторону приходится одна строка: последнее - с большим id, следующее - с меньшим.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingLastAndNextTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    private Long ownerId;
+    private User booker;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("LastNext Owner", "lastnext.owner@example.com")).getId();
+        Long bookerId = userService.create(new UserCreateDto("LastNext Booker", "lastnext.booker@example.com")).getId();
+        booker = userRepository.findById(bookerId).orElseThrow();
+    }
+
+    @Test
+    void onlyApprovedBookingsOnEachSideOfNowAreChosen() {
+        Item item = createItem("Шуруповёрт");
+        save(item, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        Long last = save(item, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        save(item, now.minusHours(20), now.minusHours(1), BookingStatus.REJECTED);
+        save(item, now.minusHours(20), now.minusMinutes(30), BookingStatus.WAITING);
+        save(item, now.minusHours(1), now.plusHours(1), BookingStatus.APPROVED);
+        save(item, now.plusHours(2), now.plusHours(3), BookingStatus.WAITING);
+        save(item, now.plusHours(4), now.plusHours(5), BookingStatus.CANCELED);
+        Long next = save(item, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        save(item, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+
+        assertThat(ids(List.of(item.getId()))).containsExactlyInAnyOrder(last, next);
+    }
+
+    @Test
+    void equalDatesGiveOneBookingPerSide() {
+        Item item = createItem("Перфоратор");
+        save(item, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        Long last = save(item, now.minusDays(3), now.minusDays(1), BookingStatus.APPROVED);
+        Long next = save(item, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        save(item, now.plusDays(1), now.plusDays(3), BookingStatus.APPROVED);
+
+        assertThat(ids(List.of(item.getId()))).containsExactlyInAnyOrder(last, next);
+    }
+
+    @Test
+    void itemsWithoutPastOrFutureBookingsHaveNoRows() {
+        Item empty = createItem("Рубанок");
+        Item current = createItem("Стусло");
+        save(current, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        Item pastOnly = createItem("Киянка");
+        Long last = save(pastOnly, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED);
+
+        assertThat(ids(List.of(empty.getId(), current.getId(), pastOnly.getId()))).containsExactly(last);
+    }
+
+    private List<Long> ids(List<Long> itemIds) {
+        return bookingRepository.findLastAndNextForItems(itemIds, now).stream()
+                .map(Booking::getId)
+                .toList();
+    }
+
+    private Long save(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build()).getId();
+    }
+
+    private Item createItem(String name) {
+        Long itemId = itemService.create(new ItemCreateDto(name, "Для последнего и следующего", true, null), ownerId)
+                .getId();
+        return itemRepository.findById(itemId).orElseThrow();
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.archive.BookingArchiveJob;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Без size список бронирований отдаётся целиком, from сдвигает начало страницы
+ * на любое число строк, а проход по курсору собирает тот же список, что и без страниц,
+ * в том числе при слиянии с архивом.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingPagingTest {
+
+    private static final int BOOKINGS = 13;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiveJob bookingArchiveJob;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Paging Owner", "paging.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Paging Booker", "paging.booker@example.com")).getId();
+        Long itemId = itemService.create(new ItemCreateDto("Котелок", "Походный", true, null), ownerId).getId();
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = now.plusDays(20L * i - 120);
+            Long id = bookingService.createBooking(bookerId,
+                    new BookingCreateDto(itemId, start, start.plusDays(1))).getId();
+            bookingService.updateBookingStatus(ownerId, id, true);
+        }
+        bookingArchiveJob.archive(now.minusDays(90));
+    }
+
+    @Test
+    void withoutSizeListIsComplete() {
+        BookingPageDto page = bookingService.getUserBooking(bookerId, "ALL", 0, null, null);
+
+        assertThat(page.getBookings()).hasSize(BOOKINGS);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(bookingService.getOwnerBookings(ownerId, "ALL", 0, null, null).getBookings())
+                .hasSize(BOOKINGS);
+    }
+
+    @Test
+    void fromNotMultipleOfSizeStartsAtFrom() {
+        List<Long> all = ids(bookingService.getUserBooking(bookerId, "ALL", 0, null, null));
+        List<Long> future = ids(bookingService.getOwnerBookings(ownerId, "FUTURE", 0, null, null));
+
+        assertThat(ids(bookingService.getUserBooking(bookerId, "ALL", 5, 10, null)))
+                .isEqualTo(all.subList(5, BOOKINGS));
+        assertThat(ids(bookingService.getUserBooking(bookerId, "ALL", 3, 4, null)))
+                .isEqualTo(all.subList(3, 7));
+        assertThat(ids(bookingService.getOwnerBookings(ownerId, "FUTURE", 1, 2, null)))
+                .isEqualTo(future.subList(1, 3));
+    }
+
+    @Test
+    void cursorWalkCollectsWholeList() {
+        List<Long> all = ids(bookingService.getUserBooking(bookerId, "ALL", 0, null, null));
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingPageDto page = bookingService.getUserBooking(bookerId, "ALL", 0, 4, cursor);
+            walked.addAll(ids(page));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).isEqualTo(all);
+    }
+
+    private static List<Long> ids(BookingPageDto page) {
+        return page.getBookings().stream()
+                .map(BookingResponseDto::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Каждый список бронирований должен читаться одним запросом к каждой таблице
+ * (bookings и, для истории, bookings_archive), без догрузки вещей и арендаторов
+ * по одной строке.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingQueryCountTest {
+
+    private static final int PAGE = 50;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Long bookingId;
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        owner = userRepository.save(User.builder().name("Owner").email("count.owner@example.com").build());
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bookers.add(userRepository.save(User.builder()
+                    .name("Booker " + i).email("count.booker" + i + "@example.com").build()));
+        }
+        booker = bookers.getFirst();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            items.add(itemRepository.save(Item.builder()
+                    .name("Item " + i).description("Description " + i).available(true).owner(owner).build()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED, BookingStatus.REJECTED);
+        for (int i = 0; i < 24; i++) {
+            // Бронирование с i = 12 - текущее, остальные в прошлом или будущем
+            LocalDateTime start = i == 12 ? now.minusDays(1) : now.plusDays(i * 2L - 24).plusHours(1);
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .item(items.get(i % items.size()))
+                    .booker(i % 2 == 0 ? booker : bookers.get(1 + i % 2))
+                    .start(start)
+                    .end(i == 12 ? now.plusDays(30) : start.plusDays(1))
+                    .status(statuses.get(i % statuses.size()))
+                    .build());
+            bookingId = booking.getId();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void bookerListIsOneQueryAfterUserCheck(BookingState state) {
+        statistics.clear();
+
+        BookingPageDto page = bookingService.getUserBooking(booker.getId(), state.name(), 0, PAGE, null);
+
+        assertThat(page.getBookings()).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2 + archiveQueries(state));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void ownerListIsOneQueryAfterOwnerChecks(BookingState state) {
+        statistics.clear();
+
+        BookingPageDto page = bookingService.getOwnerBookings(owner.getId(), state.name(), 0, PAGE, null);
+
+        assertThat(page.getBookings()).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + archiveQueries(state));
+    }
+
+    @Test
+    void bookingByIdIsOneQueryAfterUserCheck() {
+        statistics.clear();
+
+        bookingService.getBookingById(owner.getId(), bookingId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private static int archiveQueries(BookingState state) {
+        return state.includesArchive() ? 1 : 0;
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.archive.BookingArchiveJob;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Сводка по состояниям совпадает с размерами списков GET /bookings и /bookings/owner
+ * и после загрузки меняется вместе с созданием бронирований и сменой их статуса,
+ * но только после коммита изменившей их транзакции.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingSummaryTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiveJob bookingArchiveJob;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Summary Owner", "summary.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Summary Booker", "summary.booker@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Палатка", "Четырёхместная", true, null), ownerId).getId();
+
+        book(now.minusDays(200), now.minusDays(199), true);
+        book(now.minusDays(20), now.minusDays(18), false);
+        book(now.minusDays(10), now.minusDays(8), true);
+        book(now.minusDays(1), now.plusDays(1), true);
+        book(now.plusDays(5), now.plusDays(6), null);
+        book(now.plusDays(10), now.plusDays(12), false);
+        bookingArchiveJob.archive(now.minusDays(90));
+    }
+
+    @Test
+    void summaryMatchesBookingLists() {
+        assertThat(bookingService.getUserSummary(bookerId))
+                .isEqualTo(expected(state -> bookingService.getUserBooking(bookerId, state, 0, 1000, null)
+                        .getBookings().size()));
+        assertThat(bookingService.getOwnerSummary(ownerId))
+                .isEqualTo(expected(state -> bookingService.getOwnerBookings(ownerId, state, 0, 1000, null)
+                        .getBookings().size()));
+    }
+
+    @Test
+    void summaryFollowsCreateAndStatusChange() {
+        Long otherBooker = userService.create(new UserCreateDto("Summary Other", "summary.other@example.com")).getId();
+        Long otherItem = itemService.create(new ItemCreateDto("Спальник", "Зимний", true, null), ownerId).getId();
+        BookingSummaryDto ownerBefore = bookingService.getOwnerSummary(ownerId);
+        assertThat(bookingService.getUserSummary(otherBooker).getAll()).isZero();
+
+        Long current = bookingService.createBooking(otherBooker,
+                new BookingCreateDto(otherItem, now.minusHours(1), now.plusHours(1))).getId();
+        Long future = bookingService.createBooking(otherBooker,
+                new BookingCreateDto(otherItem, now.plusDays(30), now.plusDays(31))).getId();
+        bookingService.updateBookingStatus(ownerId, current, true);
+        bookingService.updateBookingStatuses(ownerId, List.of(future), false);
+
+        assertThat(bookingService.getUserSummary(otherBooker)).isEqualTo(BookingSummaryDto.builder()
+                .all(2).current(1).future(1).rejected(1).build());
+        BookingSummaryDto ownerAfter = bookingService.getOwnerSummary(ownerId);
+        assertThat(ownerAfter.getAll()).isEqualTo(ownerBefore.getAll() + 2);
+        assertThat(ownerAfter.getCurrent()).isEqualTo(ownerBefore.getCurrent() + 1);
+        assertThat(ownerAfter.getFuture()).isEqualTo(ownerBefore.getFuture() + 1);
+        assertThat(ownerAfter.getWaiting()).isEqualTo(ownerBefore.getWaiting());
+        assertThat(ownerAfter.getRejected()).isEqualTo(ownerBefore.getRejected() + 1);
+    }
+
+    @Test
+    void uncommittedBookingIsNotCountedByOtherReaders() {
+        Long otherBooker = userService.create(new UserCreateDto("Summary Pending", "summary.pending@example.com"))
+                .getId();
+        BookingSummaryDto before = bookingService.getUserSummary(otherBooker);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingService.createBooking(otherBooker,
+                    new BookingCreateDto(itemId, now.plusDays(40), now.plusDays(41)));
+            assertThat(CompletableFuture.supplyAsync(() -> bookingService.getUserSummary(otherBooker)).join())
+                    .isEqualTo(before);
+            status.setRollbackOnly();
+        });
+        assertThat(bookingService.getUserSummary(otherBooker)).isEqualTo(before);
+
+        transactionTemplate.executeWithoutResult(status -> bookingService.createBooking(otherBooker,
+                new BookingCreateDto(itemId, now.plusDays(40), now.plusDays(41))));
+        assertThat(bookingService.getUserSummary(otherBooker).getFuture()).isEqualTo(before.getFuture() + 1);
+    }
+
+    @Test
+    void ownerSummaryRequiresItems() {
+        assertThatThrownBy(() -> bookingService.getOwnerSummary(bookerId))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static BookingSummaryDto expected(Function<String, Integer> count) {
+        return BookingSummaryDto.builder()
+                .all(count.apply("ALL"))
+                .current(count.apply("CURRENT"))
+                .past(count.apply("PAST"))
+                .future(count.apply("FUTURE"))
+                .waiting(count.apply("WAITING"))
+                .rejected(count.apply("REJECTED"))
+                .build();
+    }
+
+    private void book(LocalDateTime start, LocalDateTime end, Boolean approved) {
+        Long id = bookingService.createBooking(bookerId, new BookingCreateDto(itemId, start, end)).getId();
+        if (approved != null) {
+            bookingService.updateBookingStatus(ownerId, id, approved);
+        }
+    }
+}
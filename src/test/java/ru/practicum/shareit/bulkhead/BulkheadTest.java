@@ -0,0 +1,116 @@
+package ru.practicum.shareit.bulkhead;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BulkheadFullException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Занятая квота поиска отклоняет поиск после max-wait, но не мешает записи;
+ * после освобождения места поиск снова выполняется. Соединение метода с квотой
+ * возвращается в пул вместе с местом, даже если EntityManager живёт дольше вызова.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkheaddb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.bulkhead.groups.search.max-concurrent=1",
+        "shareit.bulkhead.groups.search.max-wait=50ms"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BulkheadTest {
+
+    @Autowired
+    private Bulkheads bulkheads;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Bulkhead Owner", "bulkhead.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Bulkhead Booker", "bulkhead.booker@example.com")).getId();
+        itemId = itemService.create(new ItemCreateDto("Гамак", "Туристический", true, null), ownerId).getId();
+    }
+
+    @Test
+    void fullSearchGroupRejectsSearchButNotWrites() throws InterruptedException {
+        assertThat(bulkheads.acquire(BulkheadGroup.SEARCH)).isTrue();
+        try {
+            assertThatThrownBy(() -> itemService.search("гамак", bookerId, 0, 10))
+                    .isInstanceOf(BulkheadFullException.class);
+
+            assertThat(bookingService.createBooking(bookerId,
+                    new BookingCreateDto(itemId, now.plusDays(1), now.plusDays(2))).getId()).isNotNull();
+        } finally {
+            bulkheads.release(BulkheadGroup.SEARCH);
+        }
+
+        assertThat(itemService.search("гамак", bookerId, 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void openInViewIsDisabled() {
+        assertThat(applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    void groupConnectionIsReturnedWhenMethodReturns() throws SQLException {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        // EntityManager, переживающий вызов, как при open-in-view: до конца HTTP-запроса
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+        try {
+            int active = pool.getActiveConnections();
+
+            bookingService.getOwnerBookings(ownerId, "ALL", 0, null, null);
+            bookingService.getUserBooking(bookerId, "ALL", 0, null, null);
+            itemService.search("гамак", bookerId, 0, 10);
+
+            assertThat(pool.getActiveConnections()).isEqualTo(active);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            entityManager.close();
+        }
+    }
+}
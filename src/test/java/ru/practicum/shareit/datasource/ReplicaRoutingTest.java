@@ -0,0 +1,99 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Две базы H2: основная и реплика, куда тест "реплицирует" данные копией скрипта.
+ * Read-only транзакции читают из реплики, запись идёт в основную базу, а недоступная
+ * или отстающая реплика исключается из чтения.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.datasource.replicas.enabled=true",
+        "shareit.datasource.replicas.pools[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "shareit.datasource.replicas.check-interval=1h",
+        "shareit.datasource.replicas.max-lag=10s",
+        "shareit.datasource.replicas.lag-query=SELECT seconds FROM replica_lag"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replicadb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private Long userId;
+
+    @BeforeAll
+    void init() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @BeforeEach
+    void replicate() {
+        userId = userService.create(new UserCreateDto("Primary", "routing" + System.nanoTime() + "@example.com"))
+                .getId();
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT NOPASSWORDS NOSETTINGS", String.class).forEach(replica::execute);
+        replica.execute("CREATE TABLE replica_lag (seconds INT)");
+        replica.execute("INSERT INTO replica_lag VALUES (0)");
+        replica.update("UPDATE users SET name = 'Replica' WHERE id = ?", userId);
+        replicaSet.check();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromReplicaAndWritesGoToPrimary() {
+        assertThat(userService.getById(userId).getName()).isEqualTo("Replica");
+
+        userService.update(userId, new UserUpdateDto("Updated", null));
+
+        assertThat(primary.queryForObject("SELECT name FROM users WHERE id = ?", String.class, userId))
+                .isEqualTo("Updated");
+        assertThat(userService.getById(userId).getName()).isEqualTo("Replica");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 60");
+        replicaSet.check();
+
+        assertThat(replicaSet.getReplicas().getFirst().isHealthy()).isFalse();
+        assertThat(userService.getById(userId).getName()).isEqualTo("Primary");
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        replicaSet.check();
+
+        assertThat(userService.getById(userId).getName()).isEqualTo("Replica");
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() {
+        replica.execute("DROP TABLE replica_lag");
+        replicaSet.check();
+
+        assertThat(replicaSet.getReplicas().getFirst().getError()).isNotBlank();
+        assertThat(userService.getById(userId).getName()).isEqualTo("Primary");
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.constants.DateTimeFormats;
+import ru.practicum.shareit.constants.HttpHeadersConstants;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Свободные окна вещи: начало периода не раньше текущего момента, отклонённое
+ * бронирование окно не занимает, у недоступной вещи окон нет. Период с концом
+ * не позже начала отклоняется с 400, неизвестная вещь - с 404.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemAvailabilityTest {
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern(DateTimeFormats.ISO_8601);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    private Long ownerId;
+    private Long bookerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Availability Owner", "availability.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Availability Booker", "availability.booker@example.com"))
+                .getId();
+    }
+
+    @Test
+    void slotsStartNowAndSkipRejectedBookings() {
+        Long itemId = createItem("Сапборд", true);
+        LocalDateTime approvedStart = now.plusDays(1);
+        LocalDateTime approvedEnd = now.plusDays(2);
+        Long approved = bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, approvedStart, approvedEnd)).getId();
+        bookingService.updateBookingStatus(ownerId, approved, true);
+        Long rejected = bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, now.plusDays(3), now.plusDays(4))).getId();
+        bookingService.updateBookingStatus(ownerId, rejected, false);
+        LocalDateTime to = now.plusDays(5);
+
+        LocalDateTime before = LocalDateTime.now();
+        List<FreeSlotDto> slots = itemService.getAvailability(itemId, now.minusDays(5), to);
+        LocalDateTime after = LocalDateTime.now();
+
+        assertThat(slots).hasSize(2);
+        assertThat(slots.getFirst().getStart()).isBetween(before, after);
+        assertThat(slots.getFirst().getEnd()).isEqualTo(approvedStart);
+        assertThat(slots.getLast()).isEqualTo(new FreeSlotDto(approvedEnd, to));
+    }
+
+    @Test
+    void periodInThePastHasNoSlots() {
+        Long itemId = createItem("Гироскутер", true);
+
+        assertThat(itemService.getAvailability(itemId, now.minusDays(5), now.minusDays(1))).isEmpty();
+    }
+
+    @Test
+    void unavailableItemHasNoSlots() {
+        Long itemId = createItem("Моноколесо", false);
+
+        assertThat(itemService.getAvailability(itemId, now.plusDays(1), now.plusDays(2))).isEmpty();
+    }
+
+    @Test
+    void unknownItemIsNotFound() {
+        assertThatThrownBy(() -> itemService.getAvailability(Long.MAX_VALUE, now.plusDays(1), now.plusDays(2)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void endpointRejectsEmptyPeriodAndUnknownItem() throws Exception {
+        Long itemId = createItem("Велосипед", true);
+        // MockMvc поверх общего контекста: отдельный контекст с @AutoConfigureMockMvc
+        // создал бы вещи мимо поискового индекса остальных тестов
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(availability(itemId, now.plusDays(2), now.plusDays(2)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(availability(itemId, now.plusDays(2), now.plusDays(1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(availability(Long.MAX_VALUE, now.plusDays(1), now.plusDays(2)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(availability(itemId, now.plusDays(1), now.plusDays(2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start").value(FORMAT.format(now.plusDays(1))))
+                .andExpect(jsonPath("$[0].end").value(FORMAT.format(now.plusDays(2))));
+    }
+
+    private Long createItem(String name, boolean available) {
+        return itemService.create(new ItemCreateDto(name, "Для проверки окон", available, null), ownerId).getId();
+    }
+
+    private MockHttpServletRequestBuilder availability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return get("/items/{itemId}/availability", itemId)
+                .header(HttpHeadersConstants.USER_ID_HEADER, ownerId)
+                .param("from", FORMAT.format(from))
+                .param("to", FORMAT.format(to));
+    }
+}
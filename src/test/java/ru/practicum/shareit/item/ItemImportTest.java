@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Импорт сохраняет корректные строки порциями, а ошибочные перечисляет в отчёте
+ * с номерами строк, не прерывая загрузку остальных. Вещи с requestId становятся
+ * ответами на запрос, а строка с несуществующим запросом попадает в отчёт.
+ */
+// Отдельная база: контекст с другими свойствами пересоздал бы схему общей testdb
+@SpringBootTest(properties = {
+        "shareit.item.import.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:importdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemImportTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Import Owner", "import.owner@example.com")).getId();
+    }
+
+    @Test
+    void importsCsvAndReportsBadRows() {
+        ItemImportResultDto result = itemImportService.importItems(ownerId, ItemImportFormat.CSV, body("""
+                name,description,available
+                Палатка,Трёхместная,true
+                ,Без названия,true
+                Котелок,"Походный, 2 л",false
+                Фонарь,Налобный,может быть
+
+                Спальник,До -5,true
+                """));
+
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemImportResultDto.RowError::getLine).containsExactly(3L, 5L);
+        assertThat(result.getErrors().getFirst().getError()).isEqualTo("Название предмета не может быть пустым");
+
+        assertThat(itemService.getAllItemsByOwnerId(ownerId)).extracting(ItemResponseDto::getName)
+                .contains("Палатка", "Котелок", "Спальник");
+        assertThat(itemService.search("спальник", ownerId, 0, 10)).extracting(ItemResponseDto::getName)
+                .containsExactly("Спальник");
+    }
+
+    @Test
+    void importsNdjsonAndSkipsMalformedLines() {
+        ItemImportResultDto result = itemImportService.importItems(ownerId, ItemImportFormat.NDJSON, body("""
+                {"name": "Гамак", "description": "Туристический", "available": true}
+                {"name": "Горелка", "description": "Газовая"
+                {"name": "Карабин", "description": "", "available": true}
+                {"name": "Термос", "description": "Литровый", "available": true, "requestId": null}
+                """));
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemImportResultDto.RowError::getLine).containsExactly(2L, 3L);
+        assertThat(result.getErrors().getLast().getError()).isEqualTo("Описание не может быть пустым");
+    }
+
+    @Test
+    void linksImportedItemsToRequestsAndReportsUnknownOnes() {
+        Long requesterId = userService.create(new UserCreateDto("Import Requester", "import.requester@example.com"))
+                .getId();
+        Long requestId = itemRequestService.create(requesterId, new ItemRequestCreateDto("Нужен котёл")).getId();
+        long unknownId = requestId + 1000;
+
+        ItemImportResultDto result = itemImportService.importItems(ownerId, ItemImportFormat.CSV, body("""
+                name,description,available,requestId
+                Казан,Чугунный,true,%d
+                Мангал,Складной,true,%d
+                Решётка,Для гриля,true,
+                Котёл,На 10 л,true,%d
+                """.formatted(requestId, unknownId, requestId)));
+
+        assertThat(result.getRows()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(ItemImportResultDto.RowError::getLine).containsExactly(3L);
+        assertThat(result.getErrors().getFirst().getError()).isEqualTo("Запрос с id " + unknownId + " не найден");
+
+        assertThat(itemRequestService.getById(requesterId, requestId).getItems())
+                .extracting(ItemAnswerDto::getName).containsExactlyInAnyOrder("Казан", "Котёл");
+        assertThat(itemService.getAllItemsByOwnerId(ownerId))
+                .filteredOn(item -> item.getName().equals("Решётка"))
+                .extracting(ItemResponseDto::getRequestId).containsExactly((Long) null);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
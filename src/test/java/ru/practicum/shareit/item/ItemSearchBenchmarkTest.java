@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает поиск по индексу с JPQL-запросом: результаты должны совпадать,
+ * время выполнения обоих вариантов выводится в лог.
+ */
+@Slf4j
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchBenchmarkTest {
+
+    private static final int ITEMS = 500;
+    private static final int ROUNDS = 20;
+    private static final List<String> QUERIES = List.of("дрель", "ДРЕЛЬ", "аккум", "ка", "пила 1", "отвёртка", "xyz");
+    private static final List<String> NAMES = List.of("Дрель", "Пила", "Отвёртка", "Лестница", "Палатка");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeAll
+    void seed() {
+        Long ownerId = userService.create(new UserCreateDto("Search Owner", "search.owner@example.com")).getId();
+        for (int i = 0; i < ITEMS; i++) {
+            String name = NAMES.get(i % NAMES.size()) + " " + i;
+            String description = i % 3 == 0 ? "Аккумуляторная, с кейсом" : "Обычная вещь номер " + i;
+            itemService.create(new ItemCreateDto(name, description, i % 7 != 0, null), ownerId);
+        }
+    }
+
+    @Test
+    void indexReturnsSameItemsAsJpqlSearch() {
+        assertThat(itemSearchIndex.isReady()).isTrue();
+
+        for (String query : QUERIES) {
+            List<Long> expected = itemRepository.search(query).stream()
+                    .map(Item::getId)
+                    .sorted()
+                    .toList();
+
+            assertThat(itemSearchIndex.search(query)).as(query).isEqualTo(expected);
+        }
+
+        long jpql = measure(() -> QUERIES.stream().map(itemRepository::search).toList());
+        long index = measure(() -> QUERIES.stream().map(itemSearchIndex::search).toList());
+        log.info("Поиск по {} вещам, {} запросов x {} раундов: JPQL {} мкс, индекс {} мкс",
+                ITEMS, QUERIES.size(), ROUNDS, jpql, index);
+    }
+
+    private long measure(Supplier<?> search) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / 1_000;
+    }
+}
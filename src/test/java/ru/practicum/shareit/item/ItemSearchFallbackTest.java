@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Без поискового индекса страницы from/size читаются запросом, ограниченным
+ * from + size лучшими совпадениями, в том же порядке, что и по индексу.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fallbackdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "shareit.search.index.enabled=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchFallbackTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Fallback Owner", "fallback.owner@example.com")).getId();
+        create("Походный примус", "Примус латунный, примус с насосом");
+        create("Котелок", "Подходит к любому примусу");
+        create("Примус", "Бензиновый");
+        create("Старый примус", "Рабочий");
+        create("Примус туристический", "Компактный");
+        create("Горелка", "Не примус, газовая");
+    }
+
+    @Test
+    void pagesFollowRankingWithoutIndex() {
+        assertThat(itemSearchIndex.isReady()).isFalse();
+
+        assertThat(names(0, 2)).containsExactly("Примус", "Походный примус");
+        assertThat(names(2, 3)).containsExactly("Примус туристический", "Старый примус", "Котелок");
+        assertThat(names(5, 10)).containsExactly("Горелка");
+    }
+
+    private List<String> names(int from, int size) {
+        return itemService.search("примус", ownerId, from, size).stream()
+                .map(ItemResponseDto::getName)
+                .toList();
+    }
+
+    private void create(String name, String description) {
+        itemService.create(new ItemCreateDto(name, description, true, null), ownerId);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemRanking;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.OffsetPageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поиск отдаёт вещи по убыванию релевантности страницами from/size:
+ * совпадения в названии выше совпадений в описании, точное и начальное
+ * совпадение выше вхождения в середину. Ранжирование по индексу и по
+ * результату запроса LIKE даёт один порядок, в том числе когда запрос
+ * ограничен лучшими from + size совпадениями.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemSearchRankingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Ranking Owner", "ranking.owner@example.com")).getId();
+        create("Походный примус", "Примус латунный, примус с насосом");
+        create("Котелок", "Подходит к любому примусу");
+        create("Примус", "Бензиновый");
+        create("Старый примус", "Рабочий");
+        create("Примус туристический", "Компактный");
+        create("Горелка", "Не примус, газовая");
+        itemService.create(new ItemCreateDto("Примус запасной", "Сдан в ремонт", false, null), ownerId);
+    }
+
+    @Test
+    void nameMatchesComeFirstAndPagesFollowRanking() {
+        // "Походный примус" выше "Примус туристический" за счёт вхождений в описании,
+        // "Котелок" и "Горелка" равны по оценке и идут по id
+        List<String> expected = List.of("Примус", "Походный примус", "Примус туристический", "Старый примус",
+                "Котелок", "Горелка");
+
+        assertThat(names(0, 100)).isEqualTo(expected);
+
+        List<String> paged = new ArrayList<>();
+        for (int from = 0; from < expected.size(); from += 4) {
+            paged.addAll(names(from, 4));
+        }
+        assertThat(paged).isEqualTo(expected);
+        assertThat(names(expected.size(), 4)).isEmpty();
+    }
+
+    @Test
+    void fallbackRanksLikeIndex() {
+        List<String> ranked = ItemRanking.top("ПРИМУС", itemRepository.search("ПРИМУС"), 3).stream()
+                .map(Item::getName)
+                .toList();
+
+        assertThat(ranked).isEqualTo(names(0, 3));
+    }
+
+    @Test
+    void limitedFallbackQueryKeepsBestMatches() {
+        List<String> expected = names(0, 100);
+
+        for (int limit = 1; limit <= expected.size(); limit++) {
+            List<Item> window = itemRepository.searchTop("ПРИМУС", OffsetPageRequest.of(0, limit));
+
+            assertThat(window).hasSize(limit);
+            assertThat(ItemRanking.top("ПРИМУС", window, limit)).extracting(Item::getName)
+                    .isEqualTo(expected.subList(0, limit));
+        }
+    }
+
+    private List<String> names(int from, int size) {
+        return itemService.search("ПРИМУС", ownerId, from, size).stream()
+                .map(ItemResponseDto::getName)
+                .toList();
+    }
+
+    private void create(String name, String description) {
+        itemService.create(new ItemCreateDto(name, description, true, null), ownerId);
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.dto.ItemUpdateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Повторное чтение карточки вещи не обращается к БД и не сериализует её заново
+ * и учитывается в метриках кэша как попадание, а изменения вещи, комментариев и бронирований сразу видны в следующем чтении.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemViewCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long bookerId;
+
+    @BeforeAll
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        ownerId = userService.create(new UserCreateDto("Cache Owner", "cache.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Cache Booker", "cache.booker@example.com")).getId();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        Long itemId = createItem("Палатка");
+
+        itemService.getByItemId(itemId, bookerId);
+        itemService.getByItemId(itemId, ownerId);
+        statistics.clear();
+
+        itemService.getByItemId(itemId, bookerId);
+        itemService.getByItemId(itemId, ownerId);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        Long itemId = createItem("Стремянка");
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        for (int i = 0; i < 3; i++) {
+            itemService.getByItemId(itemId, bookerId);
+        }
+
+        assertThat(cacheGets("miss") - misses).isEqualTo(1);
+        assertThat(cacheGets("hit") - hits).isEqualTo(2);
+    }
+
+    @Test
+    void updateAndCommentInvalidateBothViews() {
+        Long itemId = createItem("Дрель");
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(itemId).orElseThrow())
+                .booker(userRepository.findById(bookerId).orElseThrow())
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        itemService.getByItemId(itemId, bookerId);
+        itemService.getByItemId(itemId, ownerId);
+
+        itemService.update(itemId, new ItemUpdateDto("Дрель ударная", null, null), ownerId);
+        itemService.addComment(itemId, new CommentCreateDto("Сверлит бетон"), bookerId);
+
+        for (Long userId : new Long[]{bookerId, ownerId}) {
+            ItemResponseDto view = itemService.getByItemId(itemId, userId);
+            assertThat(view.getName()).isEqualTo("Дрель ударная");
+            assertThat(view.getComments()).hasSize(1);
+        }
+        assertThat(itemService.getByItemId(itemId, ownerId).getLastBooking()).isNotNull();
+    }
+
+    @Test
+    void approvedBookingRefreshesOwnerView() {
+        Long itemId = createItem("Лестница");
+        assertThat(itemService.getByItemId(itemId, ownerId).getNextBooking()).isNull();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Long bookingId = bookingService.createBooking(bookerId,
+                new BookingCreateDto(itemId, start, start.plusDays(1))).getId();
+        bookingService.updateBookingStatus(ownerId, bookingId, true);
+
+        ItemResponseDto view = itemService.getByItemId(itemId, ownerId);
+        assertThat(view.getNextBooking()).isNotNull();
+        assertThat(view.getNextBooking().getId()).isEqualTo(bookingId);
+        assertThat(itemService.getByItemId(itemId, bookerId).getNextBooking()).isNull();
+    }
+
+    @Test
+    void changingReturnedViewDoesNotChangeCache() {
+        Long itemId = createItem("Тент");
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(Booking.builder()
+                .item(itemRepository.findById(itemId).orElseThrow())
+                .booker(userRepository.findById(bookerId).orElseThrow())
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        itemService.addComment(itemId, new CommentCreateDto("Держит дождь"), bookerId);
+
+        ItemResponseDto view = itemService.getByItemId(itemId, bookerId);
+        view.setName("Чужое название");
+        view.getComments().getFirst().setText("Чужой текст");
+        view.getComments().clear();
+
+        ItemResponseDto again = itemService.getByItemId(itemId, bookerId);
+        assertThat(again.getName()).isEqualTo("Тент");
+        assertThat(again.getComments()).extracting(CommentDto::getText).containsExactly("Держит дождь");
+    }
+
+    @Test
+    void jsonIsSerializedOnceAndRefreshedOnWrite() throws Exception {
+        Long itemId = createItem("Тачка");
+
+        byte[] json = itemService.getJsonByItemId(itemId, bookerId).body();
+
+        assertThat(itemService.getJsonByItemId(itemId, bookerId).body()).isSameAs(json);
+        assertThat(objectMapper.readValue(json, ItemResponseDto.class))
+                .isEqualTo(itemService.getByItemId(itemId, bookerId));
+
+        itemService.update(itemId, new ItemUpdateDto("Тачка садовая", null, null), ownerId);
+
+        assertThat(objectMapper.readValue(itemService.getJsonByItemId(itemId, bookerId).body(), ItemResponseDto.class)
+                .getName()).isEqualTo("Тачка садовая");
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tags("cache", "itemViews", "view", "public", "result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private Long createItem(String name) {
+        return itemService.create(new ItemCreateDto(name, "Для проверки кэша", true, null), ownerId).getId();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemResponseDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * В режиме виртуальных потоков много одновременных чтений карточек против пула
+ * из двух соединений и без кэша карточек завершаются: каждое чтение ждёт два
+ * соединения для параллельных запросов, не держа ни одного и не занимая поток-носитель.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtualdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.threads.virtual.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "shareit.item.cache.ttl=0s",
+        "shareit.bulkhead.enabled=false"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemViewVirtualThreadsTest {
+
+    private static final int REQUESTS = 64;
+    private static final int ITEMS = 4;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private Long ownerId;
+    private Long bookerId;
+    private final List<Long> itemIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserCreateDto("Virtual Owner", "virtual.owner@example.com")).getId();
+        bookerId = userService.create(new UserCreateDto("Virtual Booker", "virtual.booker@example.com")).getId();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ITEMS; i++) {
+            Long itemId = itemService.create(new ItemCreateDto("Велосипед " + i, "Горный", true, null), ownerId)
+                    .getId();
+            Long bookingId = bookingService.createBooking(bookerId,
+                    new BookingCreateDto(itemId, start, start.plusDays(1))).getId();
+            bookingService.updateBookingStatus(ownerId, bookingId, true);
+            itemIds.add(itemId);
+        }
+    }
+
+    @Test
+    void concurrentViewsCompleteWithSmallPool() throws Exception {
+        List<Future<ItemResponseDto>> views = new ArrayList<>();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < REQUESTS; i++) {
+                Long itemId = itemIds.get(i % ITEMS);
+                Long userId = i % 2 == 0 ? ownerId : bookerId;
+                views.add(requests.submit(() -> itemService.getByItemId(itemId, userId)));
+            }
+            for (int i = 0; i < REQUESTS; i++) {
+                ItemResponseDto view = views.get(i).get(60, TimeUnit.SECONDS);
+                assertThat(view.getId()).isEqualTo(itemIds.get(i % ITEMS));
+                assertThat(view.getNextBooking() != null).isEqualTo(i % 2 == 0);
+            }
+        }
+    }
+}
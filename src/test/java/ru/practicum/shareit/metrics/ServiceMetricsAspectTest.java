@@ -0,0 +1,69 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ServiceMetricsAspectTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void bookingListsAreTimedByStateAndOutcome() {
+        Long userId = userService.create(new UserCreateDto("Metrics User", "metrics.user@example.com")).getId();
+        long past = count("PAST", "success");
+        long invalid = count("INVALID", "BadRequestException");
+        long notFound = count("ALL", "NotFoundException");
+
+        bookingService.getUserBooking(userId, "past", 0, 10, null);
+        assertThatThrownBy(() -> bookingService.getUserBooking(userId, "whatever", 0, 10, null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> bookingService.getUserBooking(-1L, "ALL", 0, 10, null))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(count("PAST", "success")).isEqualTo(past + 1);
+        assertThat(count("INVALID", "BadRequestException")).isEqualTo(invalid + 1);
+        assertThat(count("ALL", "NotFoundException")).isEqualTo(notFound + 1);
+    }
+
+    @Test
+    void methodsWithoutStateAreTaggedNone() {
+        userService.create(new UserCreateDto("Metrics Other", "metrics.other@example.com"));
+
+        assertThat(meterRegistry.find(ServiceMetricsAspect.TIMER)
+                .tags("service", "UserService", "method", "create", "state", "NONE", "outcome", "success")
+                .timer()).isNotNull();
+    }
+
+    @Test
+    void hibernateStatisticsAreBoundOnceByAutoConfiguration() {
+        assertThat(meterRegistry.find("hibernate.sessions.open").functionCounters())
+                .singleElement()
+                .satisfies(counter -> assertThat(counter.getId().getTag("entityManagerFactory")).isNotNull());
+    }
+
+    private long count(String state, String outcome) {
+        Timer timer = meterRegistry.find(ServiceMetricsAspect.TIMER)
+                .tags("service", "BookingService", "method", "getUserBooking", "state", state, "outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,352 @@
+package ru.practicum.shareit.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingArchiveRepository;
+import ru.practicum.shareit.booking.storage.BookingEventRepository;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.booking.storage.JobLockRepository;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.storage.UserRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы запросов репозиториев на схеме из миграций. SQL, который генерирует Hibernate,
+ * перехватывается и выполняется через EXPLAIN на заполненной базе; каждое обращение
+ * к таблице должно идти по индексу с условием, а не полным просмотром.
+ * Поиск по подстроке и выборки всех строк сюда не входят.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plandb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.migration.QueryPlanTest$CapturingInspector"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final int OWNERS = 200;
+    private static final int ITEMS_PER_OWNER = 5;
+    private static final int BOOKINGS_PER_ITEM = 20;
+    private static final int BOOKERS = 300;
+    private static final int REQUESTS = 500;
+
+    // Обращение к таблице в плане H2: /* PUBLIC.IX_ITEMS_OWNER: OWNER_ID = ?1 */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* (PUBLIC\\.[\\w.]+)(:[^*]*)? \\*/");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingArchiveRepository bookingArchiveRepository;
+
+    @Autowired
+    private BookingEventRepository bookingEventRepository;
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeAll
+    void seed() {
+        int users = OWNERS + BOOKERS;
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)",
+                rows(users, i -> new Object[]{i + 1L, "User " + i, "plan" + i + "@example.com"}));
+
+        int items = OWNERS * ITEMS_PER_OWNER;
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, owner_id) VALUES (?, ?, ?, ?, ?)",
+                rows(items, i -> new Object[]{i + 1L, "Item " + i, "Описание " + i, i % 4 != 0,
+                        (long) (i / ITEMS_PER_OWNER + 1)}));
+
+        jdbcTemplate.batchUpdate("INSERT INTO item_requests (id, description, requester_id, created) VALUES (?, ?, ?, ?)",
+                rows(REQUESTS, i -> new Object[]{i + 1L, "Запрос " + i, (long) (OWNERS + i % BOOKERS + 1),
+                        Timestamp.valueOf(now.minusHours(i))}));
+        jdbcTemplate.update("UPDATE items SET request_id = id / 2 WHERE MOD(id, 2) = 0");
+
+        BookingStatus[] statuses = BookingStatus.values();
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status, created) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                rows(items * BOOKINGS_PER_ITEM, i -> {
+                    LocalDateTime start = now.plusDays(i % BOOKINGS_PER_ITEM * 3L - 30);
+                    return new Object[]{i + 1L, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)),
+                            (long) (i / BOOKINGS_PER_ITEM + 1), (long) (OWNERS + i % BOOKERS + 1),
+                            statuses[i % statuses.length].name(), Timestamp.valueOf(now)};
+                }));
+
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)",
+                rows(items * 2, i -> new Object[]{i + 1L, "Отзыв " + i, (long) (i / 2 + 1),
+                        (long) (OWNERS + i % BOOKERS + 1), Timestamp.valueOf(now)}));
+
+        // Архив: копия завершённых давно бронирований, для планов дубли не мешают
+        jdbcTemplate.update("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status, created) "
+                + "SELECT id, start_date, end_date, item_id, booker_id, status, created FROM bookings "
+                + "WHERE end_date < ?", Timestamp.valueOf(now.minusDays(20)));
+
+        // Outbox: старые события доставлены, последние ещё нет
+        jdbcTemplate.update("INSERT INTO booking_events (id, type, booking_id, item_id, booker_id, owner_id, created, "
+                + "delivered_at) SELECT id, 'CREATED', id, item_id, booker_id, 1, created, "
+                + "CASE WHEN MOD(id, 100) = 0 THEN NULL ELSE created END FROM bookings");
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    Stream<Arguments> queries() {
+        Long booker = OWNERS + 1L;
+        Long owner = 1L;
+        Long item = 1L;
+        LocalDateTime cursor = now.plusYears(1);
+        PageRequest page = PageRequest.of(0, 20);
+        return Stream.of(
+                query("findWithDetailsById", () -> bookingRepository.findWithDetailsById(1L)),
+                query("findByBooker", () -> bookingRepository.findByBooker(booker, cursor, Long.MAX_VALUE, page)),
+                query("findCurrentByBooker",
+                        () -> bookingRepository.findCurrentByBooker(booker, now, cursor, Long.MAX_VALUE, page)),
+                query("findPastByBooker",
+                        () -> bookingRepository.findPastByBooker(booker, now, cursor, Long.MAX_VALUE, page)),
+                query("findFutureByBooker",
+                        () -> bookingRepository.findFutureByBooker(booker, now, cursor, Long.MAX_VALUE, page)),
+                query("findByBookerAndStatus", () -> bookingRepository.findByBookerAndStatus(
+                        booker, BookingStatus.WAITING, cursor, Long.MAX_VALUE, page)),
+                query("findByItemOwner", () -> bookingRepository.findByItemOwner(owner, cursor, Long.MAX_VALUE, page)),
+                query("findCurrentByItemOwner",
+                        () -> bookingRepository.findCurrentByItemOwner(owner, now, cursor, Long.MAX_VALUE, page)),
+                query("findPastByItemOwner",
+                        () -> bookingRepository.findPastByItemOwner(owner, now, cursor, Long.MAX_VALUE, page)),
+                query("findFutureByItemOwner",
+                        () -> bookingRepository.findFutureByItemOwner(owner, now, cursor, Long.MAX_VALUE, page)),
+                query("findByItemOwnerAndStatus", () -> bookingRepository.findByItemOwnerAndStatus(
+                        owner, BookingStatus.WAITING, cursor, Long.MAX_VALUE, page)),
+                query("streamByBooker", () -> {
+                    try (var bookings = bookingRepository.streamByBooker(booker)) {
+                        bookings.findFirst();
+                    }
+                }),
+                query("streamByItemOwner", () -> {
+                    try (var bookings = bookingRepository.streamByItemOwner(owner)) {
+                        bookings.findFirst();
+                    }
+                }),
+                query("streamCurrentByBooker", () -> first(bookingRepository.streamCurrentByBooker(booker, now))),
+                query("streamPastByBooker", () -> first(bookingRepository.streamPastByBooker(booker, now))),
+                query("streamFutureByBooker", () -> first(bookingRepository.streamFutureByBooker(booker, now))),
+                query("streamByBookerAndStatus",
+                        () -> first(bookingRepository.streamByBookerAndStatus(booker, BookingStatus.WAITING))),
+                query("streamCurrentByItemOwner",
+                        () -> first(bookingRepository.streamCurrentByItemOwner(owner, now))),
+                query("streamPastByItemOwner", () -> first(bookingRepository.streamPastByItemOwner(owner, now))),
+                query("streamFutureByItemOwner",
+                        () -> first(bookingRepository.streamFutureByItemOwner(owner, now))),
+                query("streamByItemOwnerAndStatus",
+                        () -> first(bookingRepository.streamByItemOwnerAndStatus(owner, BookingStatus.WAITING))),
+                query("findLastBookingForItem", () -> bookingRepository.findLastBookingForItem(item, now)),
+                query("findNextBookingForItem", () -> bookingRepository.findNextBookingForItem(item, now)),
+                query("findActiveIntervals", () -> bookingRepository.findActiveIntervals(
+                        item, List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now)),
+                query("findActiveIntervalsForItems", () -> bookingRepository.findActiveIntervalsForItems(
+                        List.of(1L, 2L, 3L), List.of(BookingStatus.WAITING, BookingStatus.APPROVED), now)),
+                query("findLastAndNextForItems",
+                        () -> bookingRepository.findLastAndNextForItems(List.of(1L, 2L, 3L), now)),
+                query("findWaitingForUpdate", () -> bookingRepository.findWaitingForUpdate(List.of(1L, 2L), owner)),
+                query("updateWaitingStatus",
+                        () -> bookingRepository.updateWaitingStatus(List.of(1L, 2L), owner, BookingStatus.APPROVED)),
+                query("existsByBookerIdAndItemIdAndEndBefore",
+                        () -> bookingRepository.existsByBookerIdAndItemIdAndEndBefore(booker, item, now)),
+                query("findVersionById", () -> bookingRepository.findVersionById(1L)),
+                query("findApprovedBounds", () -> bookingRepository.findApprovedBounds(List.of(1L, 2L, 3L), now)),
+                query("findTimesByBooker", () -> bookingRepository.findTimesByBooker(booker)),
+                query("findTimesByItemOwner", () -> bookingRepository.findTimesByItemOwner(owner)),
+                query("findArchivableIds",
+                        () -> bookingRepository.findArchivableIds(now.minusDays(20), PageRequest.of(0, 100))),
+                query("deleteAllByIdIn", () -> bookingRepository.deleteAllByIdIn(List.of(1L, 2L))),
+                query("archive.findWithDetailsById", () -> bookingArchiveRepository.findWithDetailsById(1L)),
+                query("archive.findByBooker",
+                        () -> bookingArchiveRepository.findByBooker(booker, cursor, Long.MAX_VALUE, page)),
+                query("archive.findByBookerAndStatus", () -> bookingArchiveRepository.findByBookerAndStatus(
+                        booker, BookingStatus.REJECTED, cursor, Long.MAX_VALUE, page)),
+                query("archive.findByItemOwner",
+                        () -> bookingArchiveRepository.findByItemOwner(owner, cursor, Long.MAX_VALUE, page)),
+                query("archive.findByItemOwnerAndStatus", () -> bookingArchiveRepository.findByItemOwnerAndStatus(
+                        owner, BookingStatus.REJECTED, cursor, Long.MAX_VALUE, page)),
+                query("archive.streamByBooker", () -> {
+                    try (var bookings = bookingArchiveRepository.streamByBooker(booker)) {
+                        bookings.findFirst();
+                    }
+                }),
+                query("archive.streamByItemOwner", () -> {
+                    try (var bookings = bookingArchiveRepository.streamByItemOwner(owner)) {
+                        bookings.findFirst();
+                    }
+                }),
+                query("archive.streamByBookerAndStatus", () -> first(
+                        bookingArchiveRepository.streamByBookerAndStatus(booker, BookingStatus.REJECTED))),
+                query("archive.streamByItemOwnerAndStatus", () -> first(
+                        bookingArchiveRepository.streamByItemOwnerAndStatus(owner, BookingStatus.REJECTED))),
+                query("archive.findVersionById", () -> bookingArchiveRepository.findVersionById(1L)),
+                query("archive.findApprovedBounds",
+                        () -> bookingArchiveRepository.findApprovedBounds(List.of(1L, 2L, 3L))),
+                query("archive.findTimesByBooker", () -> bookingArchiveRepository.findTimesByBooker(booker)),
+                query("archive.findTimesByItemOwner", () -> bookingArchiveRepository.findTimesByItemOwner(owner)),
+                query("archive.findLastForItems", () -> bookingArchiveRepository.findLastForItems(List.of(1L, 2L))),
+                query("archive.existsApprovedByBookerIdAndItemId",
+                        () -> bookingArchiveRepository.existsApprovedByBookerIdAndItemId(booker, item)),
+                query("archive.copyFromBookings", () -> bookingArchiveRepository.copyFromBookings(List.of(-1L))),
+                query("events.findUndelivered",
+                        () -> bookingEventRepository.findUndelivered(0L, now, PageRequest.of(0, 100))),
+                query("events.markDelivered", () -> bookingEventRepository.markDelivered(List.of(1L, 2L), now)),
+                query("events.deleteDeliveredBefore",
+                        () -> bookingEventRepository.deleteDeliveredBefore(now.minusDays(7))),
+                query("jobLocks.acquire",
+                        () -> jobLockRepository.acquire("booking-archive", "plan", now, now.plusHours(1))),
+                query("jobLocks.release", () -> jobLockRepository.release("booking-archive", "plan", now)),
+                query("findAllByOwnerId", () -> itemRepository.findAllByOwnerId(owner)),
+                query("existsByOwnerId", () -> itemRepository.existsByOwnerId(owner)),
+                query("item.findVersionById", () -> itemRepository.findVersionById(item)),
+                query("findVersionsByOwnerId", () -> itemRepository.findVersionsByOwnerId(owner)),
+                query("incrementVersion", () -> itemRepository.incrementVersion(item)),
+                query("findAnswersByRequestIds",
+                        () -> itemRepository.findAnswersByRequestIds(List.of(1L, 2L, 3L))),
+                // findOthers - чтение всех чужих запросов в порядке индекса, как выборки всех строк не проверяется
+                query("request.findByRequester", () -> itemRequestRepository.findByRequester(booker)),
+                query("findByItemId", () -> commentRepository.findByItemId(item)),
+                query("findByItemIdIn", () -> commentRepository.findByItemIdIn(List.of(1L, 2L, 3L))),
+                query("existsByEmail", () -> userRepository.existsByEmail("plan1@example.com")),
+                query("user.findVersionById", () -> userRepository.findVersionById(owner)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void usesIndexes(String name, Runnable query) {
+        List<String> statements = capture(query);
+
+        assertThat(statements).as(name).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            log.info("План {}:\n{}", name, plan);
+            assertThat(fullScans(plan)).as("%s:%n%s", name, plan).isEmpty();
+        }
+    }
+
+    private List<String> capture(Runnable query) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CapturingInspector.CAPTURED.clear();
+        // Запросы на изменение и с блокировкой откатываются, данные не меняются между проверками
+        transaction.executeWithoutResult(status -> {
+            query.run();
+            status.setRollbackOnly();
+        });
+        Set<String> statements = new LinkedHashSet<>(CapturingInspector.CAPTURED);
+        return new ArrayList<>(statements);
+    }
+
+    // План без выполнения запроса: параметры не влияют на выбор индексов в H2
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("EXPLAIN не выполнен: " + sql, e);
+            }
+        });
+    }
+
+    // Полный просмотр: tableScan или индекс без условия (обход всего индекса ради сортировки)
+    private static List<String> fullScans(String plan) {
+        List<String> scans = new ArrayList<>();
+        Matcher access = TABLE_ACCESS.matcher(plan);
+        while (access.find()) {
+            if (access.group(1).endsWith(".tableScan") || access.group(2) == null) {
+                scans.add(access.group());
+            }
+        }
+        return scans;
+    }
+
+    private static Arguments query(String name, Runnable query) {
+        return Arguments.of(name, query);
+    }
+
+    // Потоковому запросу достаточно первой строки, чтобы SQL был выполнен
+    private static void first(Stream<?> rows) {
+        try (rows) {
+            rows.findFirst();
+        }
+    }
+
+    private static List<Object[]> rows(int count, IntFunction<Object[]> row) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row.apply(i));
+        }
+        return rows;
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> CAPTURED = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            CAPTURED.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Запросы вещей: свои запросы с ответами, чужие страницами, новые первыми.
+ * Ответы на страницу загружаются одним запросом независимо от её размера.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemRequestTest {
+
+    private static final int REQUESTS = 6;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long requesterId;
+    private Long ownerId;
+    private final List<Long> requestIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        requesterId = userService.create(new UserCreateDto("Request Author", "request.author@example.com")).getId();
+        ownerId = userService.create(new UserCreateDto("Request Owner", "request.owner@example.com")).getId();
+        for (int i = 0; i < REQUESTS; i++) {
+            Long requestId = itemRequestService.create(requesterId,
+                    new ItemRequestCreateDto("Нужна вещь " + i)).getId();
+            requestIds.add(requestId);
+            itemService.create(new ItemCreateDto("Ответ " + i, "На запрос " + i, true, requestId), ownerId);
+            if (i % 2 == 0) {
+                itemService.create(new ItemCreateDto("Ещё ответ " + i, "На запрос " + i, true, requestId), ownerId);
+            }
+        }
+    }
+
+    @Test
+    void ownRequestsAreNewestFirstWithAnswers() {
+        List<ItemRequestDto> own = itemRequestService.getOwnRequests(requesterId);
+
+        assertThat(own).extracting(ItemRequestDto::getId).containsExactlyElementsOf(requestIds.reversed());
+        assertThat(own.getLast().getItems()).extracting(ItemAnswerDto::getName)
+                .containsExactly("Ответ 0", "Ещё ответ 0");
+        assertThat(own.getLast().getItems()).extracting(ItemAnswerDto::getOwnerId).containsOnly(ownerId);
+        assertThat(own.get(own.size() - 2).getItems()).extracting(ItemAnswerDto::getName).containsExactly("Ответ 1");
+        assertThat(itemRequestService.getOwnRequests(ownerId)).isEmpty();
+    }
+
+    @Test
+    void otherRequestsArePagedAndExcludeOwn() {
+        assertThat(itemRequestService.getOtherRequests(requesterId, 0, 100))
+                .extracting(ItemRequestDto::getId)
+                .doesNotContainAnyElementsOf(requestIds);
+
+        List<Long> pages = new ArrayList<>();
+        for (int from = 0; from < REQUESTS; from += 2) {
+            itemRequestService.getOtherRequests(ownerId, from, 2).stream()
+                    .filter(request -> requestIds.contains(request.getId()))
+                    .forEach(request -> pages.add(request.getId()));
+        }
+        assertThat(pages).containsExactlyElementsOf(requestIds.reversed());
+    }
+
+    @Test
+    void pageStartsAtFromNotMultipleOfSize() {
+        List<Long> all = itemRequestService.getOtherRequests(ownerId, 0, 1000).stream()
+                .map(ItemRequestDto::getId)
+                .toList();
+
+        assertThat(itemRequestService.getOtherRequests(ownerId, 3, 2))
+                .extracting(ItemRequestDto::getId)
+                .containsExactlyElementsOf(all.subList(3, 5));
+        assertThat(itemRequestService.getOtherRequests(ownerId, 1, 4))
+                .extracting(ItemRequestDto::getId)
+                .containsExactlyElementsOf(all.subList(1, 5));
+    }
+
+    @Test
+    void answersLoadInOneQueryPerPage() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        statistics.clear();
+        itemRequestService.getOtherRequests(ownerId, 0, 1);
+        long single = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        itemRequestService.getOtherRequests(ownerId, 0, REQUESTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(single);
+    }
+
+    @Test
+    void getByIdReturnsAnswersAndRequiresExistingRequest() {
+        ItemRequestDto request = itemRequestService.getById(ownerId, requestIds.getFirst());
+
+        assertThat(request.getDescription()).isEqualTo("Нужна вещь 0");
+        assertThat(request.getItems()).hasSize(2);
+        assertThatThrownBy(() -> itemRequestService.getById(ownerId, -1L)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> itemService.create(new ItemCreateDto("Без запроса", "Нет", true, -1L), ownerId))
+                .isInstanceOf(NotFoundException.class);
+    }
+}
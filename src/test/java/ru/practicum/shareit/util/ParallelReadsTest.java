@@ -0,0 +1,81 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelReadsTest {
+
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    @Test
+    void parallelModeRunsReadsConcurrentlyInOwnTransactions() {
+        ParallelReads reads = new ParallelReads(transactionManager(), true);
+        // Каждое чтение дожидается другого: завершатся они, только если идут одновременно
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        String result = reads.both(() -> meet(bothStarted, "вещь"), () -> meet(bothStarted, "комментарии"),
+                (first, second) -> first + " и " + second);
+
+        assertThat(result).isEqualTo("вещь и комментарии");
+        assertThat(transactions.get()).isEqualTo(2);
+        reads.shutdown();
+    }
+
+    @Test
+    void sequentialModeSharesOneTransaction() {
+        ParallelReads reads = new ParallelReads(transactionManager(), false);
+
+        assertThat(reads.both(() -> 1, () -> 2, Integer::sum)).isEqualTo(3);
+        assertThat(transactions.get()).isEqualTo(1);
+        reads.shutdown();
+    }
+
+    @Test
+    void failedReadRethrowsItsException() {
+        ParallelReads reads = new ParallelReads(transactionManager(), true);
+
+        assertThatThrownBy(() -> reads.both(() -> 1, () -> {
+            throw new IllegalStateException("нет соединения");
+        }, Integer::sum)).isInstanceOf(IllegalStateException.class).hasMessage("нет соединения");
+        reads.shutdown();
+    }
+
+    private static String meet(CountDownLatch latch, String value) {
+        latch.countDown();
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).as("второе чтение не началось").isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return value;
+    }
+
+    private PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                transactions.incrementAndGet();
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 4;
+    private static final int PER_PRODUCER = 20_000;
+
+    @Test
+    void rejectsWhenFullAndKeepsOrder() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void concurrentProducersAndConsumersSeeEveryValueOnce() throws Exception {
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch producersDone = new CountDownLatch(PRODUCERS);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS + CONSUMERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                int producer = p;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < PER_PRODUCER; i++) {
+                        Integer value = producer * PER_PRODUCER + i;
+                        while (!buffer.offer(value)) {
+                            Thread.yield();
+                        }
+                    }
+                    producersDone.countDown();
+                }));
+            }
+            for (int c = 0; c < CONSUMERS; c++) {
+                futures.add(executor.submit(() -> {
+                    List<Integer> batch = new ArrayList<>();
+                    while (producersDone.getCount() > 0 || buffer.size() > 0) {
+                        if (buffer.drainTo(batch, 16) == 0) {
+                            Thread.yield();
+                        }
+                        for (Integer value : batch) {
+                            if (!received.add(value)) {
+                                duplicates.incrementAndGet();
+                            }
+                        }
+                        batch.clear();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates.get()).isZero();
+        assertThat(new HashSet<>(received)).hasSize(PRODUCERS * PER_PRODUCER);
+    }
+}